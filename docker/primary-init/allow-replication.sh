@@ -0,0 +1,3 @@
+#!/bin/sh
+# Разрешаем реплике (сервис db-replica) подключаться к основному серверу для потоковой репликации
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
@@ -0,0 +1,61 @@
+package net.orekhov.calories_tracker.benchmark;
+
+import net.orekhov.calories_tracker.entity.Food;
+import net.orekhov.calories_tracker.entity.Meal;
+import net.orekhov.calories_tracker.entity.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Генератор детерминированных тестовых данных для бенчмарков.
+ */
+final class BenchmarkData {
+    private static final long SEED = 42;
+
+    private BenchmarkData() {
+    }
+
+    static User user() {
+        User user = new User("John Doe", "john@example.com", 30, 80.0, 180.0, User.Goal.MAINTAIN_WEIGHT);
+        ReflectionTestUtils.setField(user, "id", 1L);
+        return user;
+    }
+
+    static List<Food> catalog(int size) {
+        Random random = new Random(SEED);
+        List<Food> foods = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Food food = new Food("Food " + i, 50 + random.nextInt(800),
+                    random.nextInt(400) / 10.0, random.nextInt(400) / 10.0, random.nextInt(900) / 10.0);
+            ReflectionTestUtils.setField(food, "id", i + 1L);
+            foods.add(food);
+        }
+        return foods;
+    }
+
+    static Meal meal(User user, List<Food> catalog, int foodsPerMeal, Random random, LocalDateTime dateTime) {
+        List<Food> foods = new ArrayList<>(foodsPerMeal);
+        for (int i = 0; i < foodsPerMeal; i++) {
+            foods.add(catalog.get(random.nextInt(catalog.size())));
+        }
+        return new Meal(user, foods, dateTime);
+    }
+
+    static List<Meal> history(int meals, int foodsPerMeal) {
+        Random random = new Random(SEED);
+        User user = user();
+        List<Food> catalog = catalog(500);
+        LocalDateTime dateTime = LocalDateTime.of(2024, 1, 1, 8, 0);
+        List<Meal> history = new ArrayList<>(meals);
+        for (int i = 0; i < meals; i++) {
+            Meal meal = meal(user, catalog, foodsPerMeal, random, dateTime.minusHours(5L * i));
+            ReflectionTestUtils.setField(meal, "id", meals - (long) i);
+            history.add(meal);
+        }
+        return history;
+    }
+}
@@ -0,0 +1,57 @@
+package net.orekhov.calories_tracker.benchmark;
+
+import net.orekhov.calories_tracker.entity.Meal;
+import net.orekhov.calories_tracker.entity.MealItem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Суммирование калорий по истории приемов пищи в памяти: чтение снимка {@code total_calories},
+ * сохраненного при записи приема пищи, против пересчета по позициям и блюдам, как это делалось
+ * до появления снимка. Служит базовой линией стоимости вычислений на стороне приложения.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DailyCaloriesBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int meals;
+
+    @Param({"5"})
+    int foodsPerMeal;
+
+    private List<Meal> history;
+
+    @Setup
+    public void setUp() {
+        history = BenchmarkData.history(meals, foodsPerMeal);
+    }
+
+    @Benchmark
+    public int snapshotSum() {
+        int total = 0;
+        for (Meal meal : history) {
+            total += meal.getTotalCalories();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int recomputeFromItems() {
+        int total = 0;
+        for (Meal meal : history) {
+            double calories = 0;
+            for (MealItem item : meal.getItems()) {
+                calories += item.getCalories();
+            }
+            total += (int) Math.round(calories);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,45 @@
+package net.orekhov.calories_tracker.benchmark;
+
+import net.orekhov.calories_tracker.entity.Meal;
+import net.orekhov.calories_tracker.entity.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость доменных вычислений: снимок нутриентов приема пищи и расчет дневной нормы пользователя.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MealBenchmark {
+
+    @Param({"1", "10", "50"})
+    int foodsPerMeal;
+
+    private Meal meal;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        user = BenchmarkData.user();
+        meal = BenchmarkData.meal(user, BenchmarkData.catalog(500), foodsPerMeal, new Random(42), LocalDateTime.now());
+    }
+
+    @Benchmark
+    public double calculateTotals() {
+        meal.calculateTotals();
+        return meal.getTotalCalories() + meal.getTotalProtein() + meal.getTotalFat() + meal.getTotalCarbs();
+    }
+
+    @Benchmark
+    public int calculateDailyCalories() {
+        user.calculateDailyCalories();
+        return user.getDailyCalories();
+    }
+}
@@ -0,0 +1,70 @@
+package net.orekhov.calories_tracker.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import net.orekhov.calories_tracker.dto.MealView;
+import net.orekhov.calories_tracker.dto.NormalizedMealPage;
+import net.orekhov.calories_tracker.entity.Meal;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость Jackson-сериализации истории: граф сущностей {@link Meal} против плоской {@link MealView}
+ * и нормализованной {@link NormalizedMealPage}. Аллокации на операцию — с профилировщиком {@code -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MealSerializationBenchmark {
+
+    @Param({"10", "1000"})
+    int meals;
+
+    @Param({"5", "50"})
+    int foodsPerMeal;
+
+    private ObjectMapper objectMapper;
+    private List<Meal> entities;
+    private List<MealView> views;
+    private NormalizedMealPage normalized;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        entities = BenchmarkData.history(meals, foodsPerMeal);
+        views = entities.stream().map(MealView::from).toList();
+        normalized = new NormalizedMealPage(BenchmarkData.user(), entities, null);
+    }
+
+    @Benchmark
+    public byte[] serializeEntities() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(entities);
+    }
+
+    @Benchmark
+    public byte[] serializeViews() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(views);
+    }
+
+    /**
+     * Преобразование в {@link MealView} входит в измерение, как и в ответе {@code /meal-history}.
+     */
+    @Benchmark
+    public byte[] serializeViewsFromEntities() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(entities.stream().map(MealView::from).toList());
+    }
+
+    @Benchmark
+    public byte[] serializeNormalized() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(normalized);
+    }
+}
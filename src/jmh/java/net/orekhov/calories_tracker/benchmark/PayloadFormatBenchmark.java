@@ -0,0 +1,103 @@
+package net.orekhov.calories_tracker.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import net.orekhov.calories_tracker.dto.MealPage;
+import net.orekhov.calories_tracker.dto.MealView;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Размер и стоимость сериализации страницы истории {@code /meals/user/{userId}} в JSON, CBOR и Smile,
+ * с gzip-сжатием и без него (сжатие выполняет Tomcat при {@code server.compression.enabled}).
+ * <p>
+ * Время сериализации выводится JMH, размер ответа в байтах для каждого формата — в конце каждого прогона.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadFormatBenchmark {
+
+    @Param({"50", "1000"})
+    int meals;
+
+    @Param({"5"})
+    int foodsPerMeal;
+
+    private ObjectMapper json;
+    private ObjectMapper cbor;
+    private ObjectMapper smile;
+    private MealPage page;
+
+    @Setup
+    public void setUp() {
+        json = mapper(new ObjectMapper());
+        cbor = mapper(new ObjectMapper(new CBORFactory()));
+        smile = mapper(new ObjectMapper(SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build()));
+        page = new MealPage(BenchmarkData.history(meals, foodsPerMeal).stream().map(MealView::from).toList(), "cursor");
+    }
+
+    private static ObjectMapper mapper(ObjectMapper mapper) {
+        return mapper.registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    @Benchmark
+    public byte[] json() throws IOException {
+        return json.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] jsonGzip() throws IOException {
+        return gzip(json);
+    }
+
+    @Benchmark
+    public byte[] cbor() throws IOException {
+        return cbor.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] cborGzip() throws IOException {
+        return gzip(cbor);
+    }
+
+    @Benchmark
+    public byte[] smile() throws IOException {
+        return smile.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] smileGzip() throws IOException {
+        return gzip(smile);
+    }
+
+    private byte[] gzip(ObjectMapper mapper) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            mapper.writeValue(out, page);
+        }
+        return bytes.toByteArray();
+    }
+
+    @TearDown
+    public void printPayloadSizes() throws IOException {
+        System.out.printf("%nPayload bytes (meals=%d, foodsPerMeal=%d): json=%d json+gzip=%d cbor=%d cbor+gzip=%d smile=%d smile+gzip=%d%n",
+                meals, foodsPerMeal, json().length, jsonGzip().length, cbor().length, cborGzip().length,
+                smile().length, smileGzip().length);
+    }
+}
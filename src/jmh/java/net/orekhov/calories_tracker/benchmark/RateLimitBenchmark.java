@@ -0,0 +1,67 @@
+package net.orekhov.calories_tracker.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.orekhov.calories_tracker.ratelimit.RateLimitFilter;
+import net.orekhov.calories_tracker.ratelimit.TokenBucketLimiter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Накладные расходы ограничения частоты: получение токена из корзины (общая горячая корзина и 10000 ключей)
+ * и полный проход {@link RateLimitFilter} для запроса к данным пользователя, в 8 потоков.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class RateLimitBenchmark {
+
+    private static final int KEYS = 10_000;
+
+    private TokenBucketLimiter<Long> limiter;
+    private RateLimitFilter filter;
+
+    @Setup
+    public void setUp() {
+        limiter = new TokenBucketLimiter<>(100, 1e9);
+        filter = new RateLimitFilter(new TokenBucketLimiter<>(100, 1e9), new TokenBucketLimiter<>(100, 1e9),
+                new SimpleMeterRegistry());
+    }
+
+    @State(Scope.Thread)
+    public static class Request {
+        MockHttpServletRequest request;
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        @Setup
+        public void setUp() {
+            long userId = ThreadLocalRandom.current().nextLong(KEYS);
+            request = new MockHttpServletRequest("GET", "/reports/" + userId + "/daily-calories");
+            request.setRemoteAddr("10.0." + userId % 256 + "." + userId / 256 % 256);
+        }
+    }
+
+    @Benchmark
+    public long acquireSharedKey() {
+        return limiter.tryAcquire(0L, System.nanoTime());
+    }
+
+    @Benchmark
+    public long acquireManyKeys() {
+        return limiter.tryAcquire(ThreadLocalRandom.current().nextLong(KEYS), System.nanoTime());
+    }
+
+    @Benchmark
+    public int filterRequest(Request state) throws Exception {
+        state.request.removeAttribute("net.orekhov.calories_tracker.ratelimit.RateLimitFilter.FILTERED");
+        filter.doFilter(state.request, state.response, (req, res) -> { });
+        return state.response.getStatus();
+    }
+}
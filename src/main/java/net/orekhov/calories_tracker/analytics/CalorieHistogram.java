@@ -0,0 +1,142 @@
+package net.orekhov.calories_tracker.analytics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Гистограмма дневных калорий пользователей одной когорты с фиксированными интервалами.
+ * <p>
+ * В отличие от t-digest и других квантильных скетчей, поддерживает удаление значения, поэтому
+ * изменение дневной суммы пользователя (новый или удаленный прием пищи) переносит его из одного
+ * интервала в другой. Гистограммы с одинаковыми интервалами складываются ({@link #merge}).
+ * Квантили вычисляются линейной интерполяцией внутри интервала с точностью до {@link #BUCKET_WIDTH} ккал.
+ * </p>
+ * <p>
+ * Класс не потокобезопасен; синхронизация — в {@link CohortStatistics}.
+ * </p>
+ */
+public class CalorieHistogram {
+    /** Ширина интервала, ккал. */
+    public static final int BUCKET_WIDTH = 50;
+    /** Количество интервалов; последний интервал не ограничен сверху. */
+    public static final int BUCKET_COUNT = 200;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long users;
+    private long withinLimit;
+    private long caloriesSum;
+
+    /**
+     * Добавляет дневную сумму пользователя.
+     *
+     * @param calories      Калории за день.
+     * @param dailyCalories Дневная норма пользователя.
+     */
+    public void add(long calories, int dailyCalories) {
+        update(calories, dailyCalories, 1);
+    }
+
+    /**
+     * Удаляет ранее добавленную дневную сумму пользователя.
+     *
+     * @param calories      Калории за день.
+     * @param dailyCalories Дневная норма пользователя.
+     */
+    public void remove(long calories, int dailyCalories) {
+        update(calories, dailyCalories, -1);
+    }
+
+    private void update(long calories, int dailyCalories, int sign) {
+        counts[bucket(calories)] += sign;
+        users += sign;
+        caloriesSum += sign * calories;
+        if (calories <= dailyCalories) {
+            withinLimit += sign;
+        }
+    }
+
+    /**
+     * Прибавляет к гистограмме значения другой гистограммы.
+     *
+     * @param other Гистограмма другой когорты.
+     */
+    public void merge(CalorieHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] += other.counts[i];
+        }
+        users += other.users;
+        withinLimit += other.withinLimit;
+        caloriesSum += other.caloriesSum;
+    }
+
+    public long getUsers() {
+        return users;
+    }
+
+    public long getWithinLimit() {
+        return withinLimit;
+    }
+
+    /**
+     * @return Средние калории за день, либо 0 для пустой гистограммы.
+     */
+    public double getAverage() {
+        return users > 0 ? (double) caloriesSum / users : 0;
+    }
+
+    /**
+     * Оценивает квантиль дневных калорий.
+     *
+     * @param q Квантиль от 0 до 1.
+     * @return Оценка квантиля, либо 0 для пустой гистограммы.
+     */
+    public double quantile(double q) {
+        if (users <= 0) {
+            return 0;
+        }
+        double rank = q * users;
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = counts[i];
+            if (count > 0 && cumulative + count >= rank) {
+                if (i == BUCKET_COUNT - 1) {
+                    return (double) i * BUCKET_WIDTH;
+                }
+                return (i + (rank - cumulative) / count) * BUCKET_WIDTH;
+            }
+            cumulative += count;
+        }
+        return (double) (BUCKET_COUNT - 1) * BUCKET_WIDTH;
+    }
+
+    /**
+     * @return Непустые интервалы по возрастанию калорий.
+     */
+    public List<Bucket> buckets() {
+        List<Bucket> buckets = new ArrayList<>();
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (counts[i] != 0) {
+                Integer to = i == BUCKET_COUNT - 1 ? null : (i + 1) * BUCKET_WIDTH;
+                buckets.add(new Bucket(i * BUCKET_WIDTH, to, counts[i]));
+            }
+        }
+        return buckets;
+    }
+
+    private static int bucket(long calories) {
+        if (calories <= 0) {
+            return 0;
+        }
+        return (int) Math.min(calories / BUCKET_WIDTH, BUCKET_COUNT - 1);
+    }
+
+    /**
+     * Интервал гистограммы.
+     *
+     * @param from  Нижняя граница, ккал (включительно).
+     * @param to    Верхняя граница, ккал (не включительно), либо {@code null} для последнего интервала.
+     * @param users Количество пользователей.
+     */
+    public record Bucket(int from, Integer to, long users) {
+    }
+}
@@ -0,0 +1,208 @@
+package net.orekhov.calories_tracker.analytics;
+
+import net.orekhov.calories_tracker.dto.CohortDayRow;
+import net.orekhov.calories_tracker.dto.CohortReport;
+import net.orekhov.calories_tracker.entity.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Когортная статистика дневных калорий в памяти: {@link CalorieHistogram} на каждую пару
+ * (цель пользователя, день).
+ * <p>
+ * Обновляется инкрементально после фиксации транзакций, изменяющих дневные сводки, и заполняется
+ * по сводкам при запуске. Отчет за день строится за постоянное время, без обращения к базе.
+ * Хранятся дни начиная с {@code calories-tracker.cohorts.retention-days} дней назад (по UTC).
+ * </p>
+ * <p>
+ * Заполнение не теряет изменения, зафиксированные во время чтения сводок: транзакции, изменяющие сводки,
+ * проходят фиксацию между {@link #enterCommit()} и {@link #exitCommit()}, а запрос заполнения начинается,
+ * когда ни одна такая фиксация не выполняется. Поэтому каждое изменение либо уже применено и видно
+ * в прочитанных сводках, либо применяется после начала запроса — такие изменения запоминаются
+ * и повторно применяются к новой статистике.
+ * </p>
+ */
+@Component
+public class CohortStatistics {
+    private final int retentionDays;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantReadWriteLock commitGate = new ReentrantReadWriteLock();
+    private Map<LocalDate, Map<User.Goal, CalorieHistogram>> days = new HashMap<>();
+    private List<UserDayChange> pendingChanges;
+
+    public CohortStatistics(@Value("${calories-tracker.cohorts.retention-days:35}") int retentionDays) {
+        this.retentionDays = retentionDays;
+    }
+
+    /**
+     * @return Первый хранимый день.
+     */
+    public LocalDate firstTrackedDay() {
+        return LocalDate.now(ZoneOffset.UTC).minusDays(retentionDays);
+    }
+
+    /**
+     * Применяет изменения дневных сводок. Дни раньше {@link #firstTrackedDay()} игнорируются.
+     *
+     * @param changes Изменения в порядке их выполнения.
+     */
+    public void apply(Collection<UserDayChange> changes) {
+        LocalDate first = firstTrackedDay();
+        lock.lock();
+        try {
+            if (pendingChanges != null) {
+                pendingChanges.addAll(changes);
+            }
+            apply(days, changes, first);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Отмечает начало фиксации транзакции, изменяющей дневные сводки. Вызывается до фиксации
+     * в том же потоке, что и парный {@link #exitCommit()} после ее завершения.
+     */
+    public void enterCommit() {
+        commitGate.readLock().lock();
+    }
+
+    /**
+     * Отмечает завершение фиксации, начатой {@link #enterCommit()}.
+     */
+    public void exitCommit() {
+        commitGate.readLock().unlock();
+    }
+
+    /**
+     * Полностью заменяет статистику. Изменения, примененные во время чтения сводок, применяются
+     * и к новой статистике.
+     *
+     * @param query Запрос непустых дневных сводок начиная с {@link #firstTrackedDay()}; выполняется,
+     *              когда нет незавершенных фиксаций, поток сводок закрывается после чтения.
+     * @return Количество учтенных сводок.
+     */
+    public int rebuild(Supplier<Stream<CohortDayRow>> query) {
+        Stream<CohortDayRow> rows;
+        commitGate.writeLock().lock();
+        try {
+            lock.lock();
+            try {
+                pendingChanges = new ArrayList<>();
+            } finally {
+                lock.unlock();
+            }
+            rows = query.get();
+        } catch (RuntimeException e) {
+            stopRecording();
+            throw e;
+        } finally {
+            commitGate.writeLock().unlock();
+        }
+
+        Map<LocalDate, Map<User.Goal, CalorieHistogram>> rebuilt = new HashMap<>();
+        int count = 0;
+        try (rows) {
+            for (CohortDayRow row : (Iterable<CohortDayRow>) rows::iterator) {
+                histogram(rebuilt, row.getGoal(), row.getDay()).add(row.getCalories(), row.getDailyCalories());
+                count++;
+            }
+        } catch (RuntimeException e) {
+            stopRecording();
+            throw e;
+        }
+
+        LocalDate first = firstTrackedDay();
+        lock.lock();
+        try {
+            apply(rebuilt, pendingChanges, first);
+            pendingChanges = null;
+            days = rebuilt;
+        } finally {
+            lock.unlock();
+        }
+        return count;
+    }
+
+    private void stopRecording() {
+        lock.lock();
+        try {
+            pendingChanges = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Строит отчет по когортам за день.
+     *
+     * @param day День.
+     * @return Отчет {@link CohortReport}; для дня без данных все когорты пустые.
+     */
+    public CohortReport report(LocalDate day) {
+        lock.lock();
+        try {
+            Map<User.Goal, CalorieHistogram> goals = days.getOrDefault(day, Map.of());
+            List<CohortReport.Cohort> cohorts = new ArrayList<>();
+            CalorieHistogram total = new CalorieHistogram();
+            for (User.Goal goal : User.Goal.values()) {
+                CalorieHistogram histogram = goals.getOrDefault(goal, new CalorieHistogram());
+                cohorts.add(CohortReport.Cohort.from(goal, histogram));
+                total.merge(histogram);
+            }
+            return new CohortReport(day, cohorts, CohortReport.Cohort.from(null, total));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Удаляет дни раньше {@link #firstTrackedDay()}; выполняется раз в час.
+     */
+    @Scheduled(cron = "0 0 * * * *")
+    public void evictExpired() {
+        LocalDate first = firstTrackedDay();
+        lock.lock();
+        try {
+            days.keySet().removeIf(day -> day.isBefore(first));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void apply(Map<LocalDate, Map<User.Goal, CalorieHistogram>> days,
+                              Collection<UserDayChange> changes, LocalDate first) {
+        for (UserDayChange change : changes) {
+            if (change.day().isBefore(first)) {
+                continue;
+            }
+            CalorieHistogram histogram = histogram(days, change.goal(), change.day());
+            if (change.mealCountBefore() > 0) {
+                histogram.remove(change.caloriesBefore(), change.dailyCalories());
+            }
+            if (change.mealCountAfter() > 0) {
+                histogram.add(change.caloriesAfter(), change.dailyCalories());
+            }
+        }
+    }
+
+    private static CalorieHistogram histogram(Map<LocalDate, Map<User.Goal, CalorieHistogram>> days,
+                                              User.Goal goal, LocalDate day) {
+        return days.computeIfAbsent(day, d -> new EnumMap<>(User.Goal.class))
+                .computeIfAbsent(goal, g -> new CalorieHistogram());
+    }
+}
@@ -0,0 +1,22 @@
+package net.orekhov.calories_tracker.analytics;
+
+import net.orekhov.calories_tracker.entity.User;
+
+import java.time.LocalDate;
+
+/**
+ * Изменение дневной сводки одного пользователя: значения до и после upsert.
+ * Нулевое количество приемов пищи означает, что пользователь не входит в статистику за этот день.
+ *
+ * @param goal            Цель пользователя.
+ * @param dailyCalories   Дневная норма пользователя.
+ * @param day             День сводки.
+ * @param caloriesBefore  Калории до изменения.
+ * @param mealCountBefore Количество приемов пищи до изменения.
+ * @param caloriesAfter   Калории после изменения.
+ * @param mealCountAfter  Количество приемов пищи после изменения.
+ */
+public record UserDayChange(User.Goal goal, int dailyCalories, LocalDate day,
+                            long caloriesBefore, long mealCountBefore,
+                            long caloriesAfter, long mealCountAfter) {
+}
@@ -0,0 +1,205 @@
+package net.orekhov.calories_tracker.cache;
+
+import net.orekhov.calories_tracker.entity.Food;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ограниченный по размеру кэш каталога блюд в памяти.
+ * <p>
+ * Блюда индексируются по ID и по нормализованному названию (без учета регистра и крайних пробелов).
+ * При превышении {@code calories-tracker.food-cache.max-size} вытесняется давно не использованное блюдо (LRU).
+ * Каталог общий для всех пользователей и почти не меняется, поэтому кэш заполняется при чтении
+ * и при создании блюда (write-through).
+ * </p>
+ */
+@Component
+public class FoodCatalogCache {
+    private final int maxSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Food> byName = new HashMap<>();
+    private final LinkedHashMap<Long, Food> byId;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public FoodCatalogCache(@Value("${calories-tracker.food-cache.max-size:10000}") int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Food cache max size must be positive");
+        }
+        this.maxSize = maxSize;
+        this.byId = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Food> eldest) {
+                if (size() <= FoodCatalogCache.this.maxSize) {
+                    return false;
+                }
+                byName.remove(normalize(eldest.getValue().getName()), eldest.getValue());
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Приводит название блюда к ключу индекса.
+     *
+     * @param name Название блюда.
+     * @return Нормализованное название.
+     */
+    public static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Ищет блюдо по ID.
+     *
+     * @param id ID блюда.
+     * @return Блюдо, если оно есть в кэше.
+     */
+    public Optional<Food> getById(Long id) {
+        Food food;
+        lock.lock();
+        try {
+            food = byId.get(id);
+        } finally {
+            lock.unlock();
+        }
+        return record(food);
+    }
+
+    /**
+     * Ищет блюдо по названию без учета регистра.
+     *
+     * @param name Название блюда.
+     * @return Блюдо, если оно есть в кэше.
+     */
+    public Optional<Food> getByName(String name) {
+        String key = normalize(name);
+        Food food;
+        lock.lock();
+        try {
+            food = byName.get(key);
+            if (food != null) {
+                // Обновляем позицию в LRU-порядке
+                byId.get(food.getId());
+            }
+        } finally {
+            lock.unlock();
+        }
+        return record(food);
+    }
+
+    /**
+     * Добавляет сохраненное блюдо в кэш. Блюда без ID не кэшируются.
+     *
+     * @param food Блюдо.
+     */
+    public void put(Food food) {
+        if (food == null || food.getId() == null || food.getName() == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            Food previous = byId.put(food.getId(), food);
+            if (previous != null) {
+                byName.remove(normalize(previous.getName()), previous);
+            }
+            byName.put(normalize(food.getName()), food);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Очищает кэш. Статистика при этом сохраняется.
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            byId.clear();
+            byName.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Текущая статистика кэша.
+     */
+    public Stats stats() {
+        int size;
+        lock.lock();
+        try {
+            size = byId.size();
+        } finally {
+            lock.unlock();
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), size, maxSize);
+    }
+
+    private Optional<Food> record(Food food) {
+        if (food != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return Optional.ofNullable(food);
+    }
+
+    /**
+     * Статистика обращений к кэшу.
+     */
+    public static class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final int size;
+        private final int maxSize;
+
+        public Stats(long hits, long misses, long evictions, int size, int maxSize) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.size = size;
+            this.maxSize = maxSize;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        /**
+         * @return Доля попаданий от общего числа обращений (0, если обращений не было).
+         */
+        public double getHitRatio() {
+            long requests = hits + misses;
+            return requests == 0 ? 0 : (double) hits / requests;
+        }
+    }
+}
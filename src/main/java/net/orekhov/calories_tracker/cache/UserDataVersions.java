@@ -0,0 +1,129 @@
+package net.orekhov.calories_tracker.cache;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Версии данных пользователей для условных GET-запросов ({@code ETag} / {@code If-None-Match}).
+ * <p>
+ * Версия увеличивается после фиксации каждой транзакции, изменяющей приемы пищи пользователя.
+ * Счетчики хранятся в массиве фиксированного размера, общем для пользователей с одинаковым хэшем ID:
+ * изменение данных одного пользователя может лишь сбросить совпадение ETag у другого, но не наоборот,
+ * поэтому память не зависит от количества пользователей.
+ * </p>
+ * <p>
+ * Версии живут в памяти процесса, поэтому в ETag входит случайная эпоха процесса: после перезапуска
+ * ранее выданные ETag не совпадают. Предполагается один экземпляр приложения.
+ * </p>
+ * <p>
+ * ETag слабые: ответ в JSON, CBOR или Smile и его сжатая версия — разные представления одних данных,
+ * а Tomcat не сжимает ответы со строгим ETag.
+ * </p>
+ */
+@Component
+public class UserDataVersions {
+    static final int STRIPES = 1 << 16;
+
+    /**
+     * Длительность слота в ETag дневных отчетов. Смещения всех часовых поясов кратны 15 минутам,
+     * поэтому смена дня в любом поясе меняет ETag.
+     */
+    static final Duration DAY_BOUNDARY_SLOT = Duration.ofMinutes(15);
+
+    private final AtomicLongArray versions = new AtomicLongArray(STRIPES);
+    private final AtomicLongArray changedAt = new AtomicLongArray(STRIPES);
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+
+    /**
+     * @param userId ID пользователя.
+     * @return Текущая версия данных пользователя.
+     */
+    public long version(Long userId) {
+        return versions.get(stripe(userId));
+    }
+
+    /**
+     * Увеличивает версию данных пользователя.
+     *
+     * @param userId ID пользователя.
+     */
+    public void bump(Long userId) {
+        int stripe = stripe(userId);
+        changedAt.set(stripe, System.currentTimeMillis());
+        versions.incrementAndGet(stripe);
+    }
+
+    /**
+     * Проверяет, менялись ли данные пользователя за последнее время (с точностью до общего счетчика).
+     *
+     * @param userId ID пользователя.
+     * @param window Интервал до текущего момента.
+     * @return {@code true}, если версия увеличивалась в течение {@code window}.
+     */
+    public boolean changedWithin(Long userId, Duration window) {
+        return System.currentTimeMillis() - changedAt.get(stripe(userId)) < window.toMillis();
+    }
+
+    /**
+     * Увеличивает версию после фиксации текущей транзакции, а вне транзакции — сразу.
+     * <p>
+     * Увеличение до фиксации позволило бы запросу прочитать новую версию вместе со старыми данными
+     * и закэшировать их под новым ETag.
+     * </p>
+     *
+     * @param userId ID пользователя.
+     */
+    public void bumpAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bump(userId);
+            }
+        });
+    }
+
+    /**
+     * Строит ETag данных пользователя. Должен вычисляться до чтения данных из базы.
+     *
+     * @param userId ID пользователя.
+     * @return Слабый ETag.
+     */
+    public String eTag(Long userId) {
+        return weak(tag(userId));
+    }
+
+    /**
+     * Строит ETag отчета за текущий день пользователя: дополнительно меняется каждые 15 минут,
+     * чтобы отчет обновлялся после полуночи в часовом поясе пользователя без обращения к базе.
+     *
+     * @param userId ID пользователя.
+     * @return Слабый ETag.
+     */
+    public String dailyETag(Long userId) {
+        long slot = Instant.now().getEpochSecond() / DAY_BOUNDARY_SLOT.toSeconds();
+        return weak(tag(userId) + "-" + Long.toString(slot, 36));
+    }
+
+    private String tag(Long userId) {
+        return epoch + "-" + version(userId);
+    }
+
+    private static String weak(String tag) {
+        return "W/\"" + tag + "\"";
+    }
+
+    private static int stripe(Long userId) {
+        long h = userId * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 48) & (STRIPES - 1);
+    }
+}
@@ -0,0 +1,18 @@
+package net.orekhov.calories_tracker.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * Включает выполнение методов {@code @Async}.
+ * <p>
+ * Используется стандартный {@code applicationTaskExecutor} Spring Boot: при
+ * {@code spring.threads.virtual.enabled=true} это исполнитель на виртуальных потоках,
+ * иначе пул платформенных потоков. Тот же исполнитель обслуживает асинхронные
+ * ответы Spring MVC ({@code StreamingResponseBody}).
+ * </p>
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
@@ -0,0 +1,43 @@
+package net.orekhov.calories_tracker.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import net.orekhov.calories_tracker.metrics.QueryCountFilter;
+import net.orekhov.calories_tracker.metrics.QueryCountInspector;
+import net.orekhov.calories_tracker.metrics.SecondLevelCacheMetrics;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Метрики количества SQL-запросов на HTTP-запрос и доли попаданий в кэш второго уровня.
+ * <p>
+ * Латентность эндпоинтов ({@code http.server.requests}), пул HikariCP и статистика
+ * Hibernate публикуются автоконфигурацией Actuator; здесь добавляется подсчет
+ * запросов через {@link QueryCountInspector} и {@link QueryCountFilter}
+ * и {@link SecondLevelCacheMetrics}.
+ * </p>
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCountInspectorCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryCountInspector());
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryCountFilter> queryCountFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<QueryCountFilter> registration = new FilterRegistrationBean<>(new QueryCountFilter(meterRegistry));
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+
+    @Bean
+    public SecondLevelCacheMetrics secondLevelCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        return new SecondLevelCacheMetrics(entityManagerFactory.unwrap(SessionFactory.class).getStatistics());
+    }
+}
@@ -0,0 +1,42 @@
+package net.orekhov.calories_tracker.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.orekhov.calories_tracker.ratelimit.RateLimitFilter;
+import net.orekhov.calories_tracker.ratelimit.TokenBucketLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Ограничение частоты запросов ({@link RateLimitFilter}). Выключается {@code calories-tracker.rate-limit.enabled=false}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "calories-tracker.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+
+    @Bean
+    public RateLimitFilter rateLimitFilter(
+            @Value("${calories-tracker.rate-limit.ip.capacity:100}") int ipCapacity,
+            @Value("${calories-tracker.rate-limit.ip.refill-per-second:50}") double ipRefillPerSecond,
+            @Value("${calories-tracker.rate-limit.user.capacity:30}") int userCapacity,
+            @Value("${calories-tracker.rate-limit.user.refill-per-second:10}") double userRefillPerSecond,
+            MeterRegistry meterRegistry) {
+        return new RateLimitFilter(new TokenBucketLimiter<>(ipCapacity, ipRefillPerSecond),
+                new TokenBucketLimiter<>(userCapacity, userRefillPerSecond), meterRegistry);
+    }
+
+    /**
+     * Фильтр стоит после фильтра наблюдения Spring MVC, поэтому отклоненные запросы видны
+     * в {@code http.server.requests} со статусом 429, но до фильтров, обращающихся к базе.
+     */
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter rateLimitFilter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.addUrlPatterns("/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,100 @@
+package net.orekhov.calories_tracker.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.orekhov.calories_tracker.datasource.ReadWriteRoutingDataSource;
+import net.orekhov.calories_tracker.datasource.ReplicaLagMonitor;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Маршрутизация чтений отчетов на реплику PostgreSQL.
+ * <p>
+ * Включается, если задан {@code calories-tracker.datasource.replica.url}. Создаются два пула HikariCP
+ * ({@code primary} и {@code replica}, метрики {@code hikaricp.*} публикуются Actuator с тегом {@code pool})
+ * и {@link ReadWriteRoutingDataSource} поверх них. Без реплики используется обычный пул Spring Boot.
+ * </p>
+ */
+@Configuration
+@ConditionalOnExpression("!'${calories-tracker.datasource.replica.url:}'.isEmpty()")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Пул реплики. Короткий таймаут получения соединения ограничивает задержку запроса
+     * до переключения на основной сервер, если реплика недоступна.
+     */
+    @Bean
+    @ConfigurationProperties("calories-tracker.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            DataSourceProperties properties,
+            @Value("${calories-tracker.datasource.replica.url}") String url,
+            @Value("${calories-tracker.datasource.replica.username:${spring.datasource.username}}") String username,
+            @Value("${calories-tracker.datasource.replica.password:${spring.datasource.password}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        dataSource.setConnectionTimeout(Duration.ofSeconds(1).toMillis());
+        dataSource.setInitializationFailTimeout(-1);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replica,
+                                               @Value("${calories-tracker.datasource.replica.max-lag:5s}") Duration maxLag,
+                                               MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(replica, maxLag, meterRegistry);
+    }
+
+    /**
+     * Источник данных приложения. {@link LazyConnectionDataSourceProxy} откладывает выбор пула
+     * до первого запроса, когда флаг {@code readOnly} транзакции уже выставлен.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaLagMonitor replicaLagMonitor,
+                                 MeterRegistry meterRegistry) {
+        return new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primary, replica, replicaLagMonitor, meterRegistry));
+    }
+
+    /**
+     * С open-in-view сессия Hibernate живет весь HTTP-запрос и по умолчанию удерживает соединение
+     * до его конца, поэтому запись после чтения в том же запросе получила бы соединение реплики.
+     * Соединение возвращается в пул после каждой транзакции.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransactionCustomizer() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
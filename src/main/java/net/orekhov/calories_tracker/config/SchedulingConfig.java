@@ -0,0 +1,16 @@
+package net.orekhov.calories_tracker.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Включает выполнение периодических задач {@code @Scheduled}.
+ * <p>
+ * Используется стандартный планировщик Spring Boot ({@code spring.task.scheduling.*}),
+ * при {@code spring.threads.virtual.enabled=true} задачи выполняются на виртуальных потоках.
+ * </p>
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
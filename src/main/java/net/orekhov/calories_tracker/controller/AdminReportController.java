@@ -0,0 +1,38 @@
+package net.orekhov.calories_tracker.controller;
+
+import net.orekhov.calories_tracker.dto.CohortReport;
+import net.orekhov.calories_tracker.service.CohortReportService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+/**
+ * Контроллер сводных отчетов по всем пользователям.
+ */
+@RestController
+@RequestMapping("/admin/reports")
+public class AdminReportController {
+    private final CohortReportService cohortReportService;
+
+    public AdminReportController(CohortReportService cohortReportService) {
+        this.cohortReportService = cohortReportService;
+    }
+
+    /**
+     * Возвращает распределение дневных калорий по целям пользователей, долю пользователей в пределах нормы
+     * и медиану/90-й процентиль. Ответ строится по статистике в памяти за постоянное время.
+     *
+     * @param day День (ISO-дата); по умолчанию текущий день по UTC.
+     * @return Отчет {@link CohortReport}.
+     */
+    @GetMapping("/cohorts")
+    public ResponseEntity<CohortReport> getCohorts(@RequestParam(required = false)
+                                                   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate day) {
+        return ResponseEntity.ok(cohortReportService.getReport(day));
+    }
+}
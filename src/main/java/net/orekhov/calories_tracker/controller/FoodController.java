@@ -1,6 +1,7 @@
 package net.orekhov.calories_tracker.controller;
 
 import lombok.RequiredArgsConstructor;
+import net.orekhov.calories_tracker.cache.FoodCatalogCache;
 import net.orekhov.calories_tracker.entity.Food;
 import net.orekhov.calories_tracker.exception.NotFoundException;
 import net.orekhov.calories_tracker.service.FoodService;
@@ -30,6 +31,32 @@ public class FoodController {
         return ResponseEntity.ok(foodService.getAllFoods());
     }
 
+    /**
+     * Возвращает статистику кэша каталога блюд (попадания, промахи, вытеснения, размер).
+     *
+     * @return Объект {@link FoodCatalogCache.Stats}.
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<FoodCatalogCache.Stats> getCacheStats() {
+        return ResponseEntity.ok(foodService.getCacheStats());
+    }
+
+    /**
+     * Ищет блюда для автодополнения: по началу названия или любого слова в нем,
+     * а при нехватке совпадений — с учетом опечаток.
+     *
+     * @param q     Поисковый запрос.
+     * @param limit Максимальное количество результатов.
+     * @return Отранжированный список объектов {@link Food}.
+     * @response 200 - Успешный поиск (список может быть пустым).
+     * @response 400 - Пустой запрос или недопустимый лимит.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<Food>> searchFoods(@RequestParam String q,
+                                                  @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(foodService.searchFoods(q, limit));
+    }
+
     /**
      * Получает информацию о блюде по названию.
      *
@@ -1,18 +1,29 @@
 package net.orekhov.calories_tracker.controller;
 
+import net.orekhov.calories_tracker.dto.MealAcceptedResponse;
+import net.orekhov.calories_tracker.dto.MealBatchResponse;
+import net.orekhov.calories_tracker.dto.MealPage;
 import net.orekhov.calories_tracker.dto.MealRequestDto;
 import net.orekhov.calories_tracker.entity.Food;
 import net.orekhov.calories_tracker.entity.Meal;
 import net.orekhov.calories_tracker.entity.User;
 import net.orekhov.calories_tracker.exception.NotFoundException;
-import net.orekhov.calories_tracker.repository.FoodRepository;
+import net.orekhov.calories_tracker.ratelimit.RateLimitFilter;
 import net.orekhov.calories_tracker.repository.UserRepository;
+import net.orekhov.calories_tracker.service.FoodService;
+import net.orekhov.calories_tracker.service.MealBatchService;
 import net.orekhov.calories_tracker.service.MealService;
+import net.orekhov.calories_tracker.wal.MealLogEntry;
+import net.orekhov.calories_tracker.wal.MealWriteAheadLog;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * Контроллер для управления приемами пищи.
@@ -23,41 +34,106 @@ import java.util.List;
 public class MealController {
     private final MealService mealService;
     private final UserRepository userRepository;
-    private final FoodRepository foodRepository;
+    private final FoodService foodService;
+    private final MealBatchService mealBatchService;
+    /**
+     * Журнал асинхронной записи; {@code null}, если асинхронный режим выключен.
+     */
+    private final MealWriteAheadLog mealLog;
+    /**
+     * Ограничение частоты запросов; {@code null}, если ограничение выключено.
+     */
+    private final RateLimitFilter rateLimitFilter;
 
-    public MealController(MealService mealService, UserRepository userRepository, FoodRepository foodRepository) {
+    public MealController(MealService mealService, UserRepository userRepository, FoodService foodService,
+                          MealBatchService mealBatchService, ObjectProvider<MealWriteAheadLog> mealLog,
+                          ObjectProvider<RateLimitFilter> rateLimitFilter) {
         this.mealService = mealService;
         this.userRepository = userRepository;
-        this.foodRepository = foodRepository;
+        this.foodService = foodService;
+        this.mealBatchService = mealBatchService;
+        this.mealLog = mealLog.getIfAvailable();
+        this.rateLimitFilter = rateLimitFilter.getIfAvailable();
     }
 
+    /**
+     * Создает прием пищи.
+     * <p>
+     * В асинхронном режиме ({@code calories-tracker.meal-log.enabled=true}) прием пищи после проверки
+     * записывается в локальный журнал и переносится в базу фоновой задачей.
+     * </p>
+     * <p>
+     * Пользователь передается в теле запроса, поэтому его токен ограничения частоты берется здесь,
+     * до обращения к базе, а не в {@link RateLimitFilter}.
+     * </p>
+     *
+     * @param mealRequest Запрос в формате {@link MealRequestDto}.
+     * @return 201 Created с сохраненным приемом пищи, либо 202 Accepted с {@link MealAcceptedResponse}
+     * в асинхронном режиме.
+     * @throws net.orekhov.calories_tracker.exception.TooManyRequestsException если превышено ограничение
+     *                                                                         частоты запросов пользователя.
+     */
     @PostMapping
-    public ResponseEntity<Meal> createMeal(@RequestBody @Validated MealRequestDto mealRequest) {
+    public ResponseEntity<?> createMeal(@RequestBody @Validated MealRequestDto mealRequest) {
+        if (rateLimitFilter != null) {
+            rateLimitFilter.acquireUserToken(mealRequest.getUserId());
+        }
         User user = userRepository.findById(mealRequest.getUserId())
                 .orElseThrow(() -> new NotFoundException("User with id " + mealRequest.getUserId() + " not found"));
 
-        List<Food> foods = foodRepository.findAllById(mealRequest.getFoodIds());
+        Map<Long, Double> quantities = mealRequest.quantitiesByFoodId();
+        List<Food> foods = foodService.getFoodsByIds(quantities.keySet());
 
-        if (foods.isEmpty() || foods.size() != mealRequest.getFoodIds().size()) {
+        if (foods.isEmpty() || foods.size() != quantities.size()) {
             throw new NotFoundException("One or more foods not found");
         }
 
-        Meal meal = new Meal(user, foods, null);
+        if (mealLog != null) {
+            MealLogEntry entry = new MealLogEntry(UUID.randomUUID(), user.getId(), LocalDateTime.now(), quantities);
+            mealLog.append(entry);
+            return ResponseEntity.accepted().body(new MealAcceptedResponse(entry.getRequestId()));
+        }
+
+        Meal meal = new Meal(user, null);
+        for (Food food : foods) {
+            meal.addItem(food, quantities.get(food.getId()));
+        }
         Meal savedMeal = mealService.createMeal(meal);
 
         return ResponseEntity.status(201).body(savedMeal);
     }
 
+    /**
+     * Создает пакет приемов пищи (например, при синхронизации офлайн-журнала).
+     *
+     * @param mealRequests Массив запросов в формате {@link MealRequestDto}.
+     * @return Результат по каждому элементу пакета: ID созданного приема пищи или причина ошибки.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<MealBatchResponse> createMeals(@RequestBody List<MealRequestDto> mealRequests) {
+        return ResponseEntity.ok(new MealBatchResponse(mealBatchService.createMeals(mealRequests)));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Meal> getMealById(@PathVariable Long id) {
         Meal meal = mealService.getMealById(id);
         return ResponseEntity.ok(meal);
     }
 
+    /**
+     * Возвращает страницу приемов пищи пользователя (keyset-пагинация по дате убывания).
+     *
+     * @param userId ID пользователя.
+     * @param limit  Размер страницы.
+     * @param before Курсор из поля {@code next} предыдущей страницы.
+     * @return Страница {@link MealPage}, либо 404 Not Found, если у пользователя нет приемов пищи.
+     */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Meal>> getUserMeals(@PathVariable Long userId) {
-        List<Meal> meals = mealService.getUserMeals(userId);
-        return meals.isEmpty() ? ResponseEntity.notFound().build() : ResponseEntity.ok(meals);
+    public ResponseEntity<MealPage> getUserMeals(@PathVariable Long userId,
+                                                 @RequestParam(defaultValue = "50") int limit,
+                                                 @RequestParam(required = false) String before) {
+        MealPage page = mealService.getUserMeals(userId, before, limit);
+        return before == null && page.getItems().isEmpty() ? ResponseEntity.notFound().build() : ResponseEntity.ok(page);
     }
 
     @DeleteMapping("/{id}")
@@ -1,33 +1,67 @@
 package net.orekhov.calories_tracker.controller;
 
-import net.orekhov.calories_tracker.entity.Meal;
+import net.orekhov.calories_tracker.cache.UserDataVersions;
+import net.orekhov.calories_tracker.dto.DailyProgress;
+import net.orekhov.calories_tracker.dto.MealExportFormat;
+import net.orekhov.calories_tracker.dto.MealHistoryShape;
+import net.orekhov.calories_tracker.dto.MealPage;
+import net.orekhov.calories_tracker.dto.NormalizedMealPage;
+import net.orekhov.calories_tracker.dto.NutritionBucket;
+import net.orekhov.calories_tracker.dto.ReportGranularity;
+import net.orekhov.calories_tracker.service.LiveReportService;
+import net.orekhov.calories_tracker.service.MealExportService;
 import net.orekhov.calories_tracker.service.ReportService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Контроллер для генерации отчетов по питанию пользователей.
+ * <p>
+ * Дневные отчеты и история приемов пищи поддерживают условные запросы: ETag строится по версии данных
+ * пользователя ({@link UserDataVersions}), и при совпадении {@code If-None-Match} возвращается
+ * 304 Not Modified без обращения к базе данных.
+ * </p>
  */
 @RestController
 @RequestMapping("/reports")
 public class ReportController {
     private final ReportService reportService;
+    private final MealExportService mealExportService;
+    private final UserDataVersions userDataVersions;
+    private final LiveReportService liveReportService;
 
-    public ReportController(ReportService reportService) {
+    public ReportController(ReportService reportService, MealExportService mealExportService,
+                            UserDataVersions userDataVersions, LiveReportService liveReportService) {
         this.reportService = reportService;
+        this.mealExportService = mealExportService;
+        this.userDataVersions = userDataVersions;
+        this.liveReportService = liveReportService;
     }
 
     /**
      * Возвращает общее количество калорий, потребленных пользователем за текущий день.
      *
-     * @param userId ID пользователя.
-     * @return Map с ключом "totalCalories" и значением количества потребленных калорий.
+     * @param userId  ID пользователя.
+     * @param request Текущий запрос (для проверки {@code If-None-Match}).
+     * @return Map с ключом "totalCalories" и значением количества потребленных калорий,
+     * либо 304 Not Modified, если данные не изменились.
      */
     @GetMapping("/{userId}/daily-calories")
-    public ResponseEntity<Map<String, Integer>> getDailyCalories(@PathVariable Long userId) {
+    public ResponseEntity<Map<String, Integer>> getDailyCalories(@PathVariable Long userId, WebRequest request) {
+        if (request.checkNotModified(userDataVersions.dailyETag(userId))) {
+            return null;
+        }
         int totalCalories = reportService.getDailyCalories(userId);
         return ResponseEntity.ok(Map.of("totalCalories", totalCalories));
     }
@@ -35,24 +69,96 @@ public class ReportController {
     /**
      * Проверяет, уложился ли пользователь в свою дневную норму калорий.
      *
-     * @param userId ID пользователя.
-     * @return Map с ключом "withinLimit" и значением true/false.
+     * @param userId  ID пользователя.
+     * @param request Текущий запрос (для проверки {@code If-None-Match}).
+     * @return Map с ключом "withinLimit" и значением true/false, либо 304 Not Modified, если данные не изменились.
      */
     @GetMapping("/{userId}/within-daily-limit")
-    public ResponseEntity<Map<String, Boolean>> isWithinDailyLimit(@PathVariable Long userId) {
+    public ResponseEntity<Map<String, Boolean>> isWithinDailyLimit(@PathVariable Long userId, WebRequest request) {
+        if (request.checkNotModified(userDataVersions.dailyETag(userId))) {
+            return null;
+        }
         boolean withinLimit = reportService.isWithinDailyLimit(userId);
         return ResponseEntity.ok(Map.of("withinLimit", withinLimit));
     }
 
     /**
-     * Возвращает историю приемов пищи пользователя.
+     * Открывает поток Server-Sent Events с итогом текущего дня пользователя.
+     * Первое событие содержит текущий итог, следующие отправляются после каждого создания
+     * или удаления приема пищи пользователя.
      *
      * @param userId ID пользователя.
-     * @return Список приемов пищи {@link Meal}, либо 404 Not Found, если история пуста.
+     * @return Поток событий {@code daily-total} с {@link DailyProgress}.
+     */
+    @GetMapping(path = "/{userId}/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamDailyProgress(@PathVariable Long userId) {
+        return liveReportService.subscribe(userId);
+    }
+
+    /**
+     * Возвращает калории и макронутриенты пользователя за период, сгруппированные по интервалам.
+     *
+     * @param userId      ID пользователя.
+     * @param from        Первый день периода (ISO-дата, включительно).
+     * @param to          Последний день периода (ISO-дата, включительно).
+     * @param granularity Шаг группировки: {@code day} (по умолчанию), {@code week} или {@code month}.
+     * @return Список {@link NutritionBucket}; интервалы без приемов пищи не возвращаются.
+     */
+    @GetMapping("/{userId}/nutrition")
+    public ResponseEntity<List<NutritionBucket>> getNutritionReport(@PathVariable Long userId,
+                                                                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                    @RequestParam(defaultValue = "day") String granularity) {
+        ReportGranularity reportGranularity = ReportGranularity.parse(granularity);
+        return ResponseEntity.ok(reportService.getNutritionReport(userId, from, to, reportGranularity));
+    }
+
+    /**
+     * Возвращает страницу истории приемов пищи пользователя (keyset-пагинация по дате убывания).
+     *
+     * @param userId  ID пользователя.
+     * @param limit   Размер страницы.
+     * @param before  Курсор из поля {@code next} предыдущей страницы.
+     * @param shape   Вид ответа: {@code full} (по умолчанию) или {@code normalized}.
+     * @param request Текущий запрос (для проверки {@code If-None-Match}).
+     * @return Страница приемов пищи {@link MealPage} или {@link NormalizedMealPage}, 404 Not Found,
+     * если история пуста, либо 304 Not Modified, если данные не изменились.
      */
     @GetMapping("/{userId}/meal-history")
-    public ResponseEntity<List<Meal>> getMealHistory(@PathVariable Long userId) {
-        List<Meal> mealHistory = reportService.getMealHistory(userId);
-        return mealHistory.isEmpty() ? ResponseEntity.notFound().build() : ResponseEntity.ok(mealHistory);
+    public ResponseEntity<?> getMealHistory(@PathVariable Long userId,
+                                            @RequestParam(defaultValue = "50") int limit,
+                                            @RequestParam(required = false) String before,
+                                            @RequestParam(defaultValue = "full") String shape,
+                                            WebRequest request) {
+        MealHistoryShape historyShape = MealHistoryShape.parse(shape);
+        if (request.checkNotModified(userDataVersions.eTag(userId))) {
+            return null;
+        }
+        if (historyShape == MealHistoryShape.NORMALIZED) {
+            return ResponseEntity.ok(reportService.getNormalizedMealHistory(userId, before, limit));
+        }
+        return ResponseEntity.ok(reportService.getMealHistory(userId, before, limit));
+    }
+
+    /**
+     * Потоково выгружает полную историю приемов пищи пользователя.
+     * <p>
+     * Ответ формируется по мере чтения строк из базы, поэтому память сервера не зависит от объема истории.
+     * </p>
+     *
+     * @param userId ID пользователя.
+     * @param format Формат выгрузки: {@code ndjson} (по умолчанию) или {@code csv}.
+     * @return Поток строк в выбранном формате.
+     */
+    @GetMapping("/{userId}/meal-history/export")
+    public ResponseEntity<StreamingResponseBody> exportMealHistory(@PathVariable Long userId,
+                                                                   @RequestParam(defaultValue = "ndjson") String format) {
+        MealExportFormat exportFormat = MealExportFormat.parse(format);
+        StreamingResponseBody body = out -> mealExportService.exportMealHistory(userId, exportFormat, out);
+        String fileName = "meal-history-" + userId + "." + exportFormat.getFileExtension();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
     }
 }
@@ -0,0 +1,93 @@
+package net.orekhov.calories_tracker.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Источник данных, направляющий транзакции только для чтения на реплику, а остальные — на основной сервер.
+ * <p>
+ * Соединение берется из пула реплики, если текущая транзакция помечена {@code readOnly}, получила разрешение
+ * {@link ReplicaReads} и {@link ReplicaLagMonitor} считает реплику пригодной. Если реплика не выдала
+ * соединение, она исключается до следующей успешной проверки, а запрос выполняется на основном сервере.
+ * </p>
+ * <p>
+ * Флаг {@code readOnly} выставляется Spring уже после получения соединения менеджером транзакций,
+ * поэтому источник должен использоваться через {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ * </p>
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica";
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaLagMonitor lagMonitor;
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+    private final Counter fallbacks;
+
+    /**
+     * @param primary       Пул основного сервера.
+     * @param replica       Пул реплики.
+     * @param lagMonitor    Проверка отставания реплики.
+     * @param meterRegistry Реестр метрик для {@code datasource.routing.*}.
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                      MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.lagMonitor = lagMonitor;
+        this.primaryConnections = connectionCounter(meterRegistry, PRIMARY);
+        this.replicaConnections = connectionCounter(meterRegistry, REPLICA);
+        this.fallbacks = Counter.builder("datasource.routing.fallbacks")
+                .description("Read-only connections sent to the primary because the replica failed")
+                .register(meterRegistry);
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    private static Counter connectionCounter(MeterRegistry meterRegistry, String pool) {
+        return Counter.builder("datasource.routing.connections")
+                .description("Connections handed out by the read/write routing datasource")
+                .tag("pool", pool)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return useReplica() ? REPLICA : PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!useReplica()) {
+            primaryConnections.increment();
+            return primary.getConnection();
+        }
+        Connection connection;
+        try {
+            connection = replica.getConnection();
+        } catch (SQLException e) {
+            lagMonitor.markUnavailable(e);
+            fallbacks.increment();
+            primaryConnections.increment();
+            return primary.getConnection();
+        }
+        replicaConnections.increment();
+        return connection;
+    }
+
+    private boolean useReplica() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && ReplicaReads.isAllowed()
+                && lagMonitor.isUsable();
+    }
+}
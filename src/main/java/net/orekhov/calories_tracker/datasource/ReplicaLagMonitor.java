@@ -0,0 +1,103 @@
+package net.orekhov.calories_tracker.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Периодически измеряет отставание реплики PostgreSQL и решает, можно ли с нее читать.
+ * <p>
+ * Реплика считается пригодной, если последняя проверка прошла успешно и отставание не превышает
+ * {@code max-lag}. До первой проверки, при ошибке подключения и при остановленной потоковой
+ * репликации чтения идут на основной сервер. Отставание равно нулю, если реплика применила все
+ * полученные WAL-записи, иначе — времени с момента последней примененной транзакции.
+ * </p>
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+    static final String LAG_QUERY = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN NULL
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+            END""";
+
+    private final DataSource replica;
+    private final Duration maxLag;
+    private volatile double lagSeconds = Double.NaN;
+    private volatile boolean usable;
+
+    /**
+     * @param replica       Пул соединений реплики.
+     * @param maxLag        Максимальное отставание, при котором реплика используется.
+     * @param meterRegistry Реестр метрик для {@code datasource.replica.lag} и {@code datasource.replica.usable}.
+     */
+    public ReplicaLagMonitor(DataSource replica, Duration maxLag, MeterRegistry meterRegistry) {
+        this.replica = replica;
+        this.maxLag = maxLag;
+        Gauge.builder("datasource.replica.lag", this, monitor -> monitor.lagSeconds)
+                .description("Replication lag of the read replica")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.usable", this, monitor -> monitor.usable ? 1 : 0)
+                .description("Whether read-only transactions are currently routed to the replica")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Измеряет отставание реплики.
+     */
+    @Scheduled(fixedDelayString = "${calories-tracker.datasource.replica.check-interval:1000}")
+    public void check() {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+            rs.next();
+            double lag = rs.getDouble(1);
+            if (rs.wasNull()) {
+                update(Double.NaN, false, "streaming replication is not running");
+            } else {
+                update(lag, lag <= maxLag.toMillis() / 1000.0, "replication lag " + lag + "s exceeds " + maxLag);
+            }
+        } catch (SQLException e) {
+            markUnavailable(e);
+        }
+    }
+
+    /**
+     * Исключает реплику из маршрутизации до следующей успешной проверки.
+     *
+     * @param cause Ошибка обращения к реплике.
+     */
+    public void markUnavailable(SQLException cause) {
+        update(Double.NaN, false, cause.getMessage());
+    }
+
+    private void update(double lag, boolean usable, String reason) {
+        lagSeconds = lag;
+        if (this.usable != usable) {
+            if (usable) {
+                log.info("Read replica is in sync, routing read-only transactions to it");
+            } else {
+                log.warn("Read replica is not usable, routing reads to the primary: {}", reason);
+            }
+        }
+        this.usable = usable;
+    }
+
+    /**
+     * @return {@code true}, если транзакции только для чтения можно направлять на реплику.
+     */
+    public boolean isUsable() {
+        return usable;
+    }
+}
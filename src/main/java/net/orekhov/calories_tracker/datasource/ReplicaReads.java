@@ -0,0 +1,74 @@
+package net.orekhov.calories_tracker.datasource;
+
+import net.orekhov.calories_tracker.cache.UserDataVersions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Разрешение читать текущую транзакцию с реплики.
+ * <p>
+ * {@link ReadWriteRoutingDataSource} отправляет на реплику только транзакции {@code readOnly},
+ * для которых явно вызван {@link #allowFor(Long)}: отчеты и выгрузки. Остальные чтения
+ * (например, проверки перед записью) идут на основной сервер, чтобы не увидеть устаревшие данные.
+ * </p>
+ * <p>
+ * Если данные пользователя менялись в этом процессе в пределах допустимого отставания реплики,
+ * разрешение не выдается: пользователь должен сразу видеть свой только что добавленный прием пищи.
+ * </p>
+ */
+@Component
+public class ReplicaReads {
+    private static final Object REPLICA_ALLOWED = new Object();
+
+    private final UserDataVersions userDataVersions;
+    private final Duration readYourWritesWindow;
+
+    /**
+     * @param userDataVersions Версии данных пользователей с временем последнего изменения.
+     * @param maxLag           Максимальное отставание реплики, при котором она используется.
+     * @param checkInterval    Интервал проверки отставания в миллисекундах.
+     */
+    public ReplicaReads(UserDataVersions userDataVersions,
+                        @Value("${calories-tracker.datasource.replica.max-lag:5s}") Duration maxLag,
+                        @Value("${calories-tracker.datasource.replica.check-interval:1000}") long checkInterval) {
+        this.userDataVersions = userDataVersions;
+        this.readYourWritesWindow = maxLag.plusMillis(checkInterval);
+    }
+
+    /**
+     * Разрешает выполнить текущую транзакцию на реплике, если данные пользователя не менялись недавно.
+     * Должен вызываться до первого запроса транзакции. Вне транзакции ничего не делает.
+     *
+     * @param userId ID пользователя, данные которого читаются.
+     */
+    public void allowFor(Long userId) {
+        if (!userDataVersions.changedWithin(userId, readYourWritesWindow)) {
+            allow();
+        }
+    }
+
+    private static void allow() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(REPLICA_ALLOWED)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(REPLICA_ALLOWED, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(REPLICA_ALLOWED);
+            }
+        });
+    }
+
+    /**
+     * @return {@code true}, если текущей транзакции разрешено читать с реплики.
+     */
+    static boolean isAllowed() {
+        return TransactionSynchronizationManager.hasResource(REPLICA_ALLOWED);
+    }
+}
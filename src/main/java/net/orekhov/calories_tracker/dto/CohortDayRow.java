@@ -0,0 +1,32 @@
+package net.orekhov.calories_tracker.dto;
+
+import net.orekhov.calories_tracker.entity.User;
+
+import java.time.LocalDate;
+
+/**
+ * Проекция дневной сводки пользователя вместе с его целью и нормой калорий.
+ * Используется для заполнения когортной статистики при запуске.
+ */
+public interface CohortDayRow {
+
+    /**
+     * @return Цель пользователя.
+     */
+    User.Goal getGoal();
+
+    /**
+     * @return Дневная норма калорий пользователя.
+     */
+    int getDailyCalories();
+
+    /**
+     * @return День сводки.
+     */
+    LocalDate getDay();
+
+    /**
+     * @return Калории за день.
+     */
+    long getCalories();
+}
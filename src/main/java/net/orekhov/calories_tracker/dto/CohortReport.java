@@ -0,0 +1,128 @@
+package net.orekhov.calories_tracker.dto;
+
+import net.orekhov.calories_tracker.analytics.CalorieHistogram;
+import net.orekhov.calories_tracker.entity.User;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Отчет по когортам пользователей за день: распределение дневных калорий по целям.
+ * Учитываются пользователи, у которых за этот день (в их часовом поясе) есть хотя бы один прием пищи.
+ */
+public class CohortReport {
+    private final LocalDate day;
+    private final List<Cohort> cohorts;
+    private final Cohort total;
+
+    public CohortReport(LocalDate day, List<Cohort> cohorts, Cohort total) {
+        this.day = day;
+        this.cohorts = cohorts;
+        this.total = total;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    /**
+     * @return Когорты по каждой цели {@link User.Goal}.
+     */
+    public List<Cohort> getCohorts() {
+        return cohorts;
+    }
+
+    /**
+     * @return Все пользователи дня; поле {@code goal} пустое.
+     */
+    public Cohort getTotal() {
+        return total;
+    }
+
+    /**
+     * Статистика одной когорты.
+     */
+    public static class Cohort {
+        private final User.Goal goal;
+        private final long users;
+        private final long withinLimit;
+        private final double withinLimitShare;
+        private final double averageCalories;
+        private final double p50;
+        private final double p90;
+        private final List<CalorieHistogram.Bucket> distribution;
+
+        public Cohort(User.Goal goal, long users, long withinLimit, double withinLimitShare, double averageCalories,
+                      double p50, double p90, List<CalorieHistogram.Bucket> distribution) {
+            this.goal = goal;
+            this.users = users;
+            this.withinLimit = withinLimit;
+            this.withinLimitShare = withinLimitShare;
+            this.averageCalories = averageCalories;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.distribution = distribution;
+        }
+
+        /**
+         * Создает статистику когорты по гистограмме.
+         *
+         * @param goal      Цель, либо {@code null} для всех пользователей.
+         * @param histogram Гистограмма когорты.
+         * @return Статистика когорты.
+         */
+        public static Cohort from(User.Goal goal, CalorieHistogram histogram) {
+            long users = histogram.getUsers();
+            double share = users > 0 ? (double) histogram.getWithinLimit() / users : 0;
+            return new Cohort(goal, users, histogram.getWithinLimit(), share, histogram.getAverage(),
+                    histogram.quantile(0.5), histogram.quantile(0.9), histogram.buckets());
+        }
+
+        public User.Goal getGoal() {
+            return goal;
+        }
+
+        public long getUsers() {
+            return users;
+        }
+
+        /**
+         * @return Количество пользователей, не превысивших дневную норму.
+         */
+        public long getWithinLimit() {
+            return withinLimit;
+        }
+
+        /**
+         * @return Доля пользователей, не превысивших дневную норму (от 0 до 1).
+         */
+        public double getWithinLimitShare() {
+            return withinLimitShare;
+        }
+
+        public double getAverageCalories() {
+            return averageCalories;
+        }
+
+        /**
+         * @return Медиана дневных калорий (точность — ширина интервала гистограммы).
+         */
+        public double getP50() {
+            return p50;
+        }
+
+        /**
+         * @return 90-й процентиль дневных калорий (точность — ширина интервала гистограммы).
+         */
+        public double getP90() {
+            return p90;
+        }
+
+        /**
+         * @return Непустые интервалы распределения дневных калорий.
+         */
+        public List<CalorieHistogram.Bucket> getDistribution() {
+            return distribution;
+        }
+    }
+}
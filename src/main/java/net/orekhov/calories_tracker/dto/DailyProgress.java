@@ -0,0 +1,47 @@
+package net.orekhov.calories_tracker.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Калории пользователя за текущий день относительно его дневной нормы.
+ */
+public class DailyProgress {
+    private final LocalDate day;
+    private final int totalCalories;
+    private final int dailyCalories;
+
+    public DailyProgress(LocalDate day, int totalCalories, int dailyCalories) {
+        this.day = day;
+        this.totalCalories = totalCalories;
+        this.dailyCalories = dailyCalories;
+    }
+
+    /**
+     * @return Текущий день в часовом поясе пользователя.
+     */
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public int getTotalCalories() {
+        return totalCalories;
+    }
+
+    /**
+     * @return Дневная норма калорий пользователя.
+     */
+    public int getDailyCalories() {
+        return dailyCalories;
+    }
+
+    /**
+     * @return Остаток до дневной нормы; отрицательный, если норма превышена.
+     */
+    public int getRemainingCalories() {
+        return dailyCalories - totalCalories;
+    }
+
+    public boolean isWithinLimit() {
+        return totalCalories <= dailyCalories;
+    }
+}
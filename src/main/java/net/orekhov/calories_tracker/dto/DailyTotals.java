@@ -0,0 +1,17 @@
+package net.orekhov.calories_tracker.dto;
+
+/**
+ * Проекция дневной сводки пользователя после ее изменения ({@code RETURNING} из upsert).
+ */
+public interface DailyTotals {
+
+    /**
+     * @return Калории за день.
+     */
+    long getCalories();
+
+    /**
+     * @return Количество приемов пищи за день.
+     */
+    long getMealCount();
+}
@@ -0,0 +1,23 @@
+package net.orekhov.calories_tracker.dto;
+
+import java.util.UUID;
+
+/**
+ * Ответ на прием пищи, принятый в асинхронном режиме: запись сохранена в журнале
+ * и будет перенесена в базу данных фоновой задачей.
+ */
+public class MealAcceptedResponse {
+
+    /**
+     * ID запроса; сохраняется в приеме пищи как {@code requestId}.
+     */
+    private final UUID requestId;
+
+    public MealAcceptedResponse(UUID requestId) {
+        this.requestId = requestId;
+    }
+
+    public UUID getRequestId() {
+        return requestId;
+    }
+}
@@ -0,0 +1,36 @@
+package net.orekhov.calories_tracker.dto;
+
+import java.util.List;
+
+/**
+ * Ответ на пакетную загрузку приемов пищи: итоговые счетчики и результаты по каждому элементу.
+ */
+public class MealBatchResponse {
+    private final int created;
+    private final int failed;
+    private final List<MealBatchResult> results;
+
+    public MealBatchResponse(List<MealBatchResult> results) {
+        int createdCount = 0;
+        for (MealBatchResult result : results) {
+            if (result.getStatus() == MealBatchResult.Status.CREATED) {
+                createdCount++;
+            }
+        }
+        this.created = createdCount;
+        this.failed = results.size() - createdCount;
+        this.results = results;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<MealBatchResult> getResults() {
+        return results;
+    }
+}
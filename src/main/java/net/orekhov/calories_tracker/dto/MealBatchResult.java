@@ -0,0 +1,62 @@
+package net.orekhov.calories_tracker.dto;
+
+/**
+ * Результат обработки одного элемента пакетной загрузки приемов пищи.
+ */
+public class MealBatchResult {
+
+    /**
+     * Статус обработки элемента.
+     */
+    public enum Status {
+        CREATED, FAILED
+    }
+
+    /**
+     * Позиция элемента во входном массиве (с нуля).
+     */
+    private final int index;
+
+    private final Status status;
+
+    /**
+     * ID созданного приема пищи (для {@link Status#CREATED}).
+     */
+    private final Long mealId;
+
+    /**
+     * Причина ошибки (для {@link Status#FAILED}).
+     */
+    private final String error;
+
+    private MealBatchResult(int index, Status status, Long mealId, String error) {
+        this.index = index;
+        this.status = status;
+        this.mealId = mealId;
+        this.error = error;
+    }
+
+    public static MealBatchResult created(int index, Long mealId) {
+        return new MealBatchResult(index, Status.CREATED, mealId, null);
+    }
+
+    public static MealBatchResult failed(int index, String error) {
+        return new MealBatchResult(index, Status.FAILED, null, error);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Long getMealId() {
+        return mealId;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,66 @@
+package net.orekhov.calories_tracker.dto;
+
+import net.orekhov.calories_tracker.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Курсор keyset-пагинации по истории приемов пищи.
+ * <p>
+ * Указывает на последний выданный прием пищи по ключу сортировки {@code (date_time, id)} по убыванию.
+ * Для клиента курсор непрозрачен: это Base64url-строка.
+ * </p>
+ */
+public class MealCursor {
+    private static final char SEPARATOR = '|';
+
+    private final LocalDateTime dateTime;
+    private final Long id;
+
+    public MealCursor(LocalDateTime dateTime, Long id) {
+        this.dateTime = dateTime;
+        this.id = id;
+    }
+
+    public LocalDateTime getDateTime() {
+        return dateTime;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Кодирует курсор в строку для ответа клиенту.
+     *
+     * @return Base64url-представление курсора.
+     */
+    public String encode() {
+        String raw = dateTime.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Разбирает курсор, полученный от клиента.
+     *
+     * @param value Строка курсора.
+     * @return Объект {@link MealCursor}.
+     * @throws BadRequestException если строка не является корректным курсором.
+     */
+    public static MealCursor decode(String value) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new BadRequestException("Invalid cursor '" + value + "'");
+            }
+            return new MealCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor '" + value + "'", e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package net.orekhov.calories_tracker.dto;
+
+import net.orekhov.calories_tracker.exception.BadRequestException;
+
+import java.util.Locale;
+
+/**
+ * Формат потоковой выгрузки истории приемов пищи.
+ */
+public enum MealExportFormat {
+    /**
+     * Один JSON-объект {@link MealView} на строку.
+     */
+    NDJSON("application/x-ndjson", "ndjson"),
+
+    /**
+     * CSV с заголовком, одна строка на прием пищи.
+     */
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    MealExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    /**
+     * Разбирает формат из параметра запроса (без учета регистра).
+     *
+     * @param value Значение параметра.
+     * @return Формат выгрузки.
+     * @throws BadRequestException если формат не поддерживается.
+     */
+    public static MealExportFormat parse(String value) {
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unsupported export format '" + value + "'", e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package net.orekhov.calories_tracker.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка выгрузки истории приемов пищи: один прием пищи и одна позиция из его состава.
+ * <p>
+ * Строки одного приема пищи идут подряд, поэтому выгрузку можно собирать потоково,
+ * держа в памяти только текущий прием пищи.
+ * </p>
+ */
+public interface MealExportRow {
+
+    Long getMealId();
+
+    LocalDateTime getDateTime();
+
+    Long getFoodId();
+
+    String getFoodName();
+
+    double getQuantity();
+
+    /**
+     * @return Снимок пищевой ценности приема пищи (одинаков во всех строках приема пищи).
+     */
+    int getTotalCalories();
+
+    double getTotalProtein();
+
+    double getTotalFat();
+
+    double getTotalCarbs();
+}
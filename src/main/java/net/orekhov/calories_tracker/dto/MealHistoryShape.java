@@ -0,0 +1,35 @@
+package net.orekhov.calories_tracker.dto;
+
+import net.orekhov.calories_tracker.exception.BadRequestException;
+
+import java.util.Locale;
+
+/**
+ * Вид ответа истории приемов пищи.
+ */
+public enum MealHistoryShape {
+    /**
+     * Приемы пищи {@link MealView} с названиями блюд в каждой позиции.
+     */
+    FULL,
+
+    /**
+     * {@link NormalizedMealPage}: заголовок пользователя, словарь блюд и приемы пищи со ссылками на блюда.
+     */
+    NORMALIZED;
+
+    /**
+     * Разбирает вид ответа из параметра запроса (без учета регистра).
+     *
+     * @param value Значение параметра.
+     * @return Вид ответа.
+     * @throws BadRequestException если вид не поддерживается.
+     */
+    public static MealHistoryShape parse(String value) {
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unsupported meal history shape '" + value + "'", e);
+        }
+    }
+}
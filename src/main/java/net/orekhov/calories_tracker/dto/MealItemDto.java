@@ -0,0 +1,46 @@
+package net.orekhov.calories_tracker.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+/**
+ * Позиция в запросе на создание приема пищи: блюдо и количество порций.
+ */
+public class MealItemDto {
+
+    /**
+     * ID блюда.
+     */
+    @NotNull(message = "Food ID cannot be null")
+    private Long foodId;
+
+    /**
+     * Количество порций (может быть дробным, например 0.5).
+     */
+    @Positive(message = "Quantity must be positive")
+    private double quantity = 1;
+
+    public MealItemDto() {
+    }
+
+    public MealItemDto(Long foodId, double quantity) {
+        this.foodId = foodId;
+        this.quantity = quantity;
+    }
+
+    public Long getFoodId() {
+        return foodId;
+    }
+
+    public void setFoodId(Long foodId) {
+        this.foodId = foodId;
+    }
+
+    public double getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(double quantity) {
+        this.quantity = quantity;
+    }
+}
@@ -0,0 +1,33 @@
+package net.orekhov.calories_tracker.dto;
+
+import java.util.List;
+
+/**
+ * Страница истории приемов пищи при keyset-пагинации.
+ */
+public class MealPage {
+
+    /**
+     * Приемы пищи страницы, отсортированные по дате убывания.
+     */
+    private final List<MealView> items;
+
+    /**
+     * Курсор следующей страницы (передается в параметре {@code before}),
+     * либо {@code null}, если страница последняя.
+     */
+    private final String next;
+
+    public MealPage(List<MealView> items, String next) {
+        this.items = items;
+        this.next = next;
+    }
+
+    public List<MealView> getItems() {
+        return items;
+    }
+
+    public String getNext() {
+        return next;
+    }
+}
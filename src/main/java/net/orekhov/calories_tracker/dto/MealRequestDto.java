@@ -1,11 +1,19 @@
 package net.orekhov.calories_tracker.dto;
 
-import jakarta.validation.constraints.NotEmpty;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotNull;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * DTO для создания нового приема пищи.
+ * <p>
+ * Состав задается списком {@link #foodIds} (каждый элемент — одна порция блюда) и/или списком
+ * {@link #items} с количеством порций. Порции одного блюда складываются.
+ * </p>
  */
 public class MealRequestDto {
 
@@ -16,11 +24,16 @@ public class MealRequestDto {
     private Long userId;
 
     /**
-     * Список ID блюд, которые входят в прием пищи.
+     * Список ID блюд, по одной порции на элемент.
      */
-    @NotEmpty(message = "Food IDs cannot be empty")
     private List<Long> foodIds;
 
+    /**
+     * Позиции с количеством порций.
+     */
+    @Valid
+    private List<MealItemDto> items;
+
     public MealRequestDto() {
     }
 
@@ -29,6 +42,12 @@ public class MealRequestDto {
         this.foodIds = foodIds;
     }
 
+    public MealRequestDto(Long userId, List<Long> foodIds, List<MealItemDto> items) {
+        this.userId = userId;
+        this.foodIds = foodIds;
+        this.items = items;
+    }
+
     public Long getUserId() {
         return userId;
     }
@@ -44,4 +63,41 @@ public class MealRequestDto {
     public void setFoodIds(List<Long> foodIds) {
         this.foodIds = foodIds;
     }
+
+    public List<MealItemDto> getItems() {
+        return items;
+    }
+
+    public void setItems(List<MealItemDto> items) {
+        this.items = items;
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "Food IDs cannot be empty")
+    public boolean isNotEmpty() {
+        return (foodIds != null && !foodIds.isEmpty()) || (items != null && !items.isEmpty());
+    }
+
+    /**
+     * Сводит {@link #foodIds} и {@link #items} в количество порций по каждому блюду.
+     * Элементы без ID блюда попадают в результат с ключом {@code null}.
+     *
+     * @return ID блюда → количество порций, в порядке первого упоминания блюда.
+     */
+    public Map<Long, Double> quantitiesByFoodId() {
+        Map<Long, Double> quantities = new LinkedHashMap<>();
+        if (foodIds != null) {
+            for (Long foodId : foodIds) {
+                quantities.merge(foodId, 1.0, Double::sum);
+            }
+        }
+        if (items != null) {
+            for (MealItemDto item : items) {
+                if (item != null) {
+                    quantities.merge(item.getFoodId(), item.getQuantity(), Double::sum);
+                }
+            }
+        }
+        return quantities;
+    }
 }
@@ -0,0 +1,113 @@
+package net.orekhov.calories_tracker.dto;
+
+import net.orekhov.calories_tracker.entity.Meal;
+import net.orekhov.calories_tracker.entity.MealItem;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Плоская read-модель приема пищи для истории и списков.
+ * <p>
+ * В отличие от сущности {@link Meal}, не содержит вложенного пользователя и полных объектов блюд,
+ * поэтому сериализация не обходит граф сущностей и не вызывает дозагрузку связей.
+ * </p>
+ */
+public class MealView {
+
+    private final Long id;
+    private final LocalDateTime dateTime;
+    private final Long userId;
+    private final List<FoodRef> foods;
+    private final int totalCalories;
+    private final double totalProtein;
+    private final double totalFat;
+    private final double totalCarbs;
+
+    public MealView(Long id, LocalDateTime dateTime, Long userId, List<FoodRef> foods,
+                    int totalCalories, double totalProtein, double totalFat, double totalCarbs) {
+        this.id = id;
+        this.dateTime = dateTime;
+        this.userId = userId;
+        this.foods = foods;
+        this.totalCalories = totalCalories;
+        this.totalProtein = totalProtein;
+        this.totalFat = totalFat;
+        this.totalCarbs = totalCarbs;
+    }
+
+    /**
+     * Создает read-модель из сущности, у которой уже загружены пользователь и блюда.
+     *
+     * @param meal Прием пищи.
+     * @return Объект {@link MealView}.
+     */
+    public static MealView from(Meal meal) {
+        List<FoodRef> foods = new ArrayList<>(meal.getItems().size());
+        for (MealItem item : meal.getItems()) {
+            foods.add(new FoodRef(item.getFood().getId(), item.getFood().getName(), item.getQuantity()));
+        }
+        return new MealView(meal.getId(), meal.getDateTime(), meal.getUser().getId(), foods,
+                meal.getTotalCalories(), meal.getTotalProtein(), meal.getTotalFat(), meal.getTotalCarbs());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDateTime getDateTime() {
+        return dateTime;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public List<FoodRef> getFoods() {
+        return foods;
+    }
+
+    public int getTotalCalories() {
+        return totalCalories;
+    }
+
+    public double getTotalProtein() {
+        return totalProtein;
+    }
+
+    public double getTotalFat() {
+        return totalFat;
+    }
+
+    public double getTotalCarbs() {
+        return totalCarbs;
+    }
+
+    /**
+     * Ссылка на блюдо в составе приема пищи и количество его порций.
+     */
+    public static class FoodRef {
+        private final Long id;
+        private final String name;
+        private final double quantity;
+
+        public FoodRef(Long id, String name, double quantity) {
+            this.id = id;
+            this.name = name;
+            this.quantity = quantity;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getQuantity() {
+            return quantity;
+        }
+    }
+}
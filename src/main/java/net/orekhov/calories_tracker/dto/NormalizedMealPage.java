@@ -0,0 +1,50 @@
+package net.orekhov.calories_tracker.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import net.orekhov.calories_tracker.entity.Meal;
+import net.orekhov.calories_tracker.entity.User;
+
+import java.util.List;
+
+/**
+ * Страница истории приемов пищи в нормализованном виде ({@code ?shape=normalized}).
+ * <p>
+ * Пользователь записывается один раз в заголовке, блюда — один раз в словаре {@code foods},
+ * а приемы пищи ссылаются на них по ID. Сериализуется {@link NormalizedMealPageSerializer}
+ * напрямую из сущностей с загруженными блюдами.
+ * </p>
+ */
+@JsonSerialize(using = NormalizedMealPageSerializer.class)
+public class NormalizedMealPage {
+
+    private final User user;
+
+    /**
+     * Приемы пищи страницы с загруженными позициями и блюдами, отсортированные по дате убывания.
+     */
+    private final List<Meal> meals;
+
+    /**
+     * Курсор следующей страницы (передается в параметре {@code before}),
+     * либо {@code null}, если страница последняя.
+     */
+    private final String next;
+
+    public NormalizedMealPage(User user, List<Meal> meals, String next) {
+        this.user = user;
+        this.meals = meals;
+        this.next = next;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public List<Meal> getMeals() {
+        return meals;
+    }
+
+    public String getNext() {
+        return next;
+    }
+}
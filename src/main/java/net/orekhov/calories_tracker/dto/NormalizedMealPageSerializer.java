@@ -0,0 +1,103 @@
+package net.orekhov.calories_tracker.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import net.orekhov.calories_tracker.entity.Food;
+import net.orekhov.calories_tracker.entity.Meal;
+import net.orekhov.calories_tracker.entity.MealItem;
+import net.orekhov.calories_tracker.entity.User;
+
+import java.io.IOException;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Потоковый сериализатор {@link NormalizedMealPage}.
+ * <p>
+ * Пишет поля напрямую в {@link JsonGenerator} без обхода графа сущностей через bean-интроспекцию
+ * и без промежуточных объектов на каждый прием пищи: дополнительная память нужна только
+ * под словарь уникальных блюд страницы. Работает с любым форматом Jackson (JSON, CBOR, Smile).
+ * </p>
+ * <pre>
+ * {
+ *   "user": {"id": 1, "name": "...", "goal": "MAINTAIN_WEIGHT", "timeZone": "UTC", "dailyCalories": 2136},
+ *   "foods": {"10": {"name": "Pizza", "calories": 300, "protein": 10.0, "fat": 12.0, "carbs": 30.0}},
+ *   "meals": [{"id": 5, "dateTime": "2024-03-01T13:30:00", "items": [{"foodId": 10, "quantity": 1.5}],
+ *              "totalCalories": 450, "totalProtein": 15.0, "totalFat": 18.0, "totalCarbs": 45.0}],
+ *   "next": null
+ * }
+ * </pre>
+ */
+public class NormalizedMealPageSerializer extends StdSerializer<NormalizedMealPage> {
+
+    public NormalizedMealPageSerializer() {
+        super(NormalizedMealPage.class);
+    }
+
+    @Override
+    public void serialize(NormalizedMealPage page, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+        writeUser(page.getUser(), gen);
+        writeFoods(page.getMeals(), gen);
+        gen.writeArrayFieldStart("meals");
+        for (Meal meal : page.getMeals()) {
+            writeMeal(meal, gen);
+        }
+        gen.writeEndArray();
+        gen.writeStringField("next", page.getNext());
+        gen.writeEndObject();
+    }
+
+    private static void writeUser(User user, JsonGenerator gen) throws IOException {
+        gen.writeObjectFieldStart("user");
+        gen.writeNumberField("id", user.getId());
+        gen.writeStringField("name", user.getName());
+        gen.writeStringField("goal", user.getGoal().name());
+        gen.writeStringField("timeZone", user.getTimeZone());
+        gen.writeNumberField("dailyCalories", user.getDailyCalories());
+        gen.writeEndObject();
+    }
+
+    private static void writeFoods(List<Meal> meals, JsonGenerator gen) throws IOException {
+        Map<Long, Food> foods = new LinkedHashMap<>();
+        for (Meal meal : meals) {
+            for (MealItem item : meal.getItems()) {
+                foods.putIfAbsent(item.getFood().getId(), item.getFood());
+            }
+        }
+        gen.writeObjectFieldStart("foods");
+        for (Food food : foods.values()) {
+            gen.writeFieldId(food.getId());
+            gen.writeStartObject();
+            gen.writeStringField("name", food.getName());
+            gen.writeNumberField("calories", food.getCalories());
+            gen.writeNumberField("protein", food.getProtein());
+            gen.writeNumberField("fat", food.getFat());
+            gen.writeNumberField("carbs", food.getCarbs());
+            gen.writeEndObject();
+        }
+        gen.writeEndObject();
+    }
+
+    private static void writeMeal(Meal meal, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        gen.writeNumberField("id", meal.getId());
+        gen.writeStringField("dateTime", DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(meal.getDateTime()));
+        gen.writeArrayFieldStart("items");
+        for (MealItem item : meal.getItems()) {
+            gen.writeStartObject();
+            gen.writeNumberField("foodId", item.getFood().getId());
+            gen.writeNumberField("quantity", item.getQuantity());
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+        gen.writeNumberField("totalCalories", meal.getTotalCalories());
+        gen.writeNumberField("totalProtein", meal.getTotalProtein());
+        gen.writeNumberField("totalFat", meal.getTotalFat());
+        gen.writeNumberField("totalCarbs", meal.getTotalCarbs());
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,43 @@
+package net.orekhov.calories_tracker.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Проекция строки отчета по питанию: суммы калорий и макронутриентов за один интервал
+ * (день, неделю или месяц).
+ * <p>
+ * Значения агрегируются в базе данных по дневным сводкам; интервалы без приемов пищи в отчет не попадают.
+ * </p>
+ */
+public interface NutritionBucket {
+
+    /**
+     * @return Первый день интервала.
+     */
+    LocalDate getPeriodStart();
+
+    /**
+     * @return Калории за интервал.
+     */
+    long getCalories();
+
+    /**
+     * @return Белки за интервал.
+     */
+    double getProtein();
+
+    /**
+     * @return Жиры за интервал.
+     */
+    double getFat();
+
+    /**
+     * @return Углеводы за интервал.
+     */
+    double getCarbs();
+
+    /**
+     * @return Количество приемов пищи за интервал.
+     */
+    long getMealCount();
+}
@@ -0,0 +1,45 @@
+package net.orekhov.calories_tracker.dto;
+
+import net.orekhov.calories_tracker.exception.BadRequestException;
+
+import java.util.Locale;
+
+/**
+ * Шаг группировки отчета по питанию за период.
+ */
+public enum ReportGranularity {
+    DAY("day"),
+    /**
+     * Неделя по ISO 8601, начинается с понедельника.
+     */
+    WEEK("week"),
+    MONTH("month");
+
+    private final String truncUnit;
+
+    ReportGranularity(String truncUnit) {
+        this.truncUnit = truncUnit;
+    }
+
+    /**
+     * @return Единица для функции {@code date_trunc} базы данных.
+     */
+    public String getTruncUnit() {
+        return truncUnit;
+    }
+
+    /**
+     * Разбирает шаг группировки из параметра запроса (без учета регистра).
+     *
+     * @param value Значение параметра.
+     * @return Шаг группировки.
+     * @throws BadRequestException если значение не поддерживается.
+     */
+    public static ReportGranularity parse(String value) {
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unsupported granularity '" + value + "'", e);
+        }
+    }
+}
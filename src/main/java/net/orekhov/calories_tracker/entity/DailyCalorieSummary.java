@@ -0,0 +1,106 @@
+package net.orekhov.calories_tracker.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+/**
+ * Материализованная дневная сводка питания пользователя.
+ * <p>
+ * Обновляется в той же транзакции, что и создание или удаление приема пищи,
+ * поэтому дневные отчеты читают одну строку по первичному ключу вместо пересчета по приемам пищи.
+ * </p>
+ */
+@Entity
+@Table(name = "daily_calorie_summary")
+@IdClass(DailyCalorieSummaryId.class)
+public class DailyCalorieSummary {
+
+    /**
+     * ID пользователя.
+     */
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * День, за который ведется сводка.
+     */
+    @Id
+    @Column(nullable = false)
+    private LocalDate day;
+
+    /**
+     * Суммарное количество калорий за день.
+     */
+    @Column(nullable = false)
+    private long calories;
+
+    /**
+     * Суммарное количество белков за день (граммы).
+     */
+    @Column(nullable = false)
+    private double protein;
+
+    /**
+     * Суммарное количество жиров за день (граммы).
+     */
+    @Column(nullable = false)
+    private double fat;
+
+    /**
+     * Суммарное количество углеводов за день (граммы).
+     */
+    @Column(nullable = false)
+    private double carbs;
+
+    /**
+     * Количество приемов пищи за день.
+     */
+    @Column(name = "meal_count", nullable = false)
+    private int mealCount;
+
+    /**
+     * Конструктор без аргументов (нужен для JPA).
+     */
+    public DailyCalorieSummary() {
+    }
+
+    public DailyCalorieSummary(Long userId, LocalDate day, long calories, double protein, double fat, double carbs, int mealCount) {
+        this.userId = userId;
+        this.day = day;
+        this.calories = calories;
+        this.protein = protein;
+        this.fat = fat;
+        this.carbs = carbs;
+        this.mealCount = mealCount;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public long getCalories() {
+        return calories;
+    }
+
+    public double getProtein() {
+        return protein;
+    }
+
+    public double getFat() {
+        return fat;
+    }
+
+    public double getCarbs() {
+        return carbs;
+    }
+
+    public int getMealCount() {
+        return mealCount;
+    }
+}
@@ -0,0 +1,54 @@
+package net.orekhov.calories_tracker.entity;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Составной первичный ключ сводки {@link DailyCalorieSummary}: пользователь и день.
+ */
+public class DailyCalorieSummaryId implements Serializable {
+
+    private Long userId;
+
+    private LocalDate day;
+
+    /**
+     * Конструктор без аргументов (нужен для JPA).
+     */
+    public DailyCalorieSummaryId() {
+    }
+
+    /**
+     * @param userId ID пользователя.
+     * @param day    День, за который ведется сводка.
+     */
+    public DailyCalorieSummaryId(Long userId, LocalDate day) {
+        this.userId = userId;
+        this.day = day;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DailyCalorieSummaryId that)) {
+            return false;
+        }
+        return Objects.equals(userId, that.userId) && Objects.equals(day, that.day);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, day);
+    }
+}
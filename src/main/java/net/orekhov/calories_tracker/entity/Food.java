@@ -3,19 +3,24 @@ package net.orekhov.calories_tracker.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Сущность "Блюдо", содержащая информацию о калорийности и составе макронутриентов.
  */
 @Entity
 @Table(name = "foods")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "foods")
 public class Food {
 
     /**
-     * Уникальный идентификатор блюда (автоматически генерируется).
+     * Уникальный идентификатор блюда (генерируется последовательностью с выделением блоками,
+     * что не мешает пакетной вставке).
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "foods_seq")
+    @SequenceGenerator(name = "foods_seq", sequenceName = "foods_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -1,45 +1,110 @@
 package net.orekhov.calories_tracker.entity;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 /**
- * Сущность "Прием пищи", связанная с пользователем и списком блюд.
+ * Сущность "Прием пищи", связанная с пользователем и позициями блюд с количеством порций.
  */
 @Entity
-@Table(name = "meals")
+@Table(name = "meals", indexes = {
+        @Index(name = "idx_meals_user_date_time_id", columnList = "user_id, date_time DESC, id DESC"),
+        @Index(name = "idx_meals_user_local_day", columnList = "user_id, local_day")
+})
 public class Meal {
 
+    /**
+     * ID генерируется последовательностью с выделением блоками (pooled), поэтому Hibernate
+     * может объединять вставки приемов пищи и строк {@code meal_items} в JDBC-пакеты.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "meals_seq")
+    @SequenceGenerator(name = "meals_seq", sequenceName = "meals_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @ManyToMany
-    @JoinTable(
-            name = "meal_foods",
-            joinColumns = @JoinColumn(name = "meal_id"),
-            inverseJoinColumns = @JoinColumn(name = "food_id")
-    )
-    private List<Food> foods;
-
+    /**
+     * Позиции приема пищи: блюдо и количество порций, не более одной позиции на блюдо.
+     * Список ID позиций хранится в кэше второго уровня, сами позиции и блюда — в своих регионах.
+     */
+    @OneToMany(mappedBy = "meal", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("id")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "meals.items")
+    private List<MealItem> items = new ArrayList<>();
+
+    /**
+     * Время приема пищи по часам сервера ({@link ZoneId#systemDefault()}).
+     */
     @Column(nullable = false)
     private LocalDateTime dateTime = LocalDateTime.now();
 
+    /**
+     * День приема пищи в часовом поясе пользователя — ключ дневных отчетов.
+     * Вычисляется при создании и сохранении и не пересчитывается при смене часового пояса пользователя:
+     * прием пищи остается в том дне, в котором пользователь его совершил.
+     */
+    @Column(name = "local_day", nullable = false)
+    private LocalDate localDay;
+
+    /**
+     * Снимок пищевой ценности на момент записи (см. {@link #calculateTotals()}).
+     * Отчеты читают эти столбцы и не зависят от последующих изменений блюд.
+     */
+    @Column(name = "total_calories", nullable = false)
+    private int totalCalories;
+
+    @Column(name = "total_protein", nullable = false)
+    private double totalProtein;
+
+    @Column(name = "total_fat", nullable = false)
+    private double totalFat;
+
+    @Column(name = "total_carbs", nullable = false)
+    private double totalCarbs;
+
+    /**
+     * ID запроса, принятого через журнал упреждающей записи (асинхронный режим).
+     * Уникален, поэтому повторное воспроизведение журнала не создает дубликатов.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Column(name = "request_id", unique = true)
+    private UUID requestId;
+
     public Meal() {
     }
 
-    public Meal(User user, List<Food> foods, LocalDateTime dateTime) {
+    public Meal(User user, LocalDateTime dateTime) {
         if (user == null) {
             throw new IllegalArgumentException("User cannot be null");
         }
         this.user = user;
-        this.foods = foods != null ? foods : List.of();
         this.dateTime = dateTime != null ? dateTime : LocalDateTime.now();
+        calculateLocalDay();
+    }
+
+    /**
+     * Создает прием пищи по одной порции каждого блюда; повторы блюда складываются в количество порций.
+     *
+     * @param user     Пользователь.
+     * @param foods    Блюда, по одной порции на элемент списка.
+     * @param dateTime Время приема пищи, {@code null} означает текущее время.
+     */
+    public Meal(User user, List<Food> foods, LocalDateTime dateTime) {
+        this(user, dateTime);
+        if (foods != null) {
+            foods.forEach(food -> addItem(food, 1));
+        }
     }
 
     public Long getId() {
@@ -55,14 +120,44 @@ public class Meal {
             throw new IllegalArgumentException("User cannot be null");
         }
         this.user = user;
+        calculateLocalDay();
+    }
+
+    public List<MealItem> getItems() {
+        return items;
+    }
+
+    /**
+     * Добавляет порции блюда. Если блюдо уже есть в приеме пищи, увеличивает количество его порций.
+     *
+     * @param food     Блюдо.
+     * @param quantity Количество порций (больше нуля).
+     * @return Позиция с этим блюдом.
+     */
+    public MealItem addItem(Food food, double quantity) {
+        for (MealItem item : items) {
+            if (sameFood(item.getFood(), food)) {
+                item.addQuantity(quantity);
+                calculateTotals();
+                return item;
+            }
+        }
+        MealItem item = new MealItem(this, food, quantity);
+        items.add(item);
+        calculateTotals();
+        return item;
+    }
+
+    private static boolean sameFood(Food a, Food b) {
+        return a == b || (a.getId() != null && a.getId().equals(b.getId()));
     }
 
-    public List<Food> getFoods() {
-        return foods;
+    public UUID getRequestId() {
+        return requestId;
     }
 
-    public void setFoods(List<Food> foods) {
-        this.foods = foods != null ? foods : List.of();
+    public void setRequestId(UUID requestId) {
+        this.requestId = requestId;
     }
 
     public LocalDateTime getDateTime() {
@@ -71,9 +166,61 @@ public class Meal {
 
     public void setDateTime(LocalDateTime dateTime) {
         this.dateTime = dateTime;
+        calculateLocalDay();
+    }
+
+    public LocalDate getLocalDay() {
+        return localDay;
+    }
+
+    /**
+     * Переводит время приема пищи из часового пояса сервера в часовой пояс пользователя и сохраняет дату.
+     * Автоматически вызывается перед сохранением записи в базе данных.
+     */
+    @PrePersist
+    public void calculateLocalDay() {
+        if (user == null || dateTime == null) {
+            return;
+        }
+        localDay = dateTime.atZone(ZoneId.systemDefault())
+                .withZoneSameInstant(user.getZoneId())
+                .toLocalDate();
+    }
+
+    /**
+     * Пересчитывает снимок пищевой ценности по позициям и текущим значениям блюд.
+     * Калории округляются до целого, нутриенты хранятся без округления.
+     */
+    public void calculateTotals() {
+        double calories = 0;
+        double protein = 0;
+        double fat = 0;
+        double carbs = 0;
+        for (MealItem item : items) {
+            calories += item.getCalories();
+            protein += item.getProtein();
+            fat += item.getFat();
+            carbs += item.getCarbs();
+        }
+        totalCalories = (int) Math.round(calories);
+        totalProtein = protein;
+        totalFat = fat;
+        totalCarbs = carbs;
     }
 
     public int getTotalCalories() {
-        return foods != null ? foods.stream().mapToInt(Food::getCalories).sum() : 0;
+        return totalCalories;
+    }
+
+    public double getTotalProtein() {
+        return totalProtein;
+    }
+
+    public double getTotalFat() {
+        return totalFat;
+    }
+
+    public double getTotalCarbs() {
+        return totalCarbs;
     }
 }
@@ -0,0 +1,101 @@
+package net.orekhov.calories_tracker.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.Positive;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+/**
+ * Позиция приема пищи: блюдо и количество порций.
+ * <p>
+ * Несколько порций одного блюда хранятся одной строкой {@code meal_items}, а не повтором блюда.
+ * Пищевая ценность {@link Food} задана на одну порцию, поэтому вклад позиции равен значению блюда,
+ * умноженному на {@link #quantity}.
+ * </p>
+ */
+@Entity
+@Table(name = "meal_items", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_meal_items_meal_food", columnNames = {"meal_id", "food_id"})
+})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "meal_items")
+public class MealItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "meal_items_seq")
+    @SequenceGenerator(name = "meal_items_seq", sequenceName = "meal_items_seq", allocationSize = 50)
+    private Long id;
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "meal_id", nullable = false)
+    private Meal meal;
+
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "food_id", nullable = false)
+    private Food food;
+
+    /**
+     * Количество порций (может быть дробным, например 0.5).
+     */
+    @Positive
+    @Column(nullable = false)
+    private double quantity;
+
+    /**
+     * Конструктор без аргументов (нужен для JPA).
+     */
+    public MealItem() {
+    }
+
+    MealItem(Meal meal, Food food, double quantity) {
+        if (food == null) {
+            throw new IllegalArgumentException("Food cannot be null");
+        }
+        if (!(quantity > 0)) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        this.meal = meal;
+        this.food = food;
+        this.quantity = quantity;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Meal getMeal() {
+        return meal;
+    }
+
+    public Food getFood() {
+        return food;
+    }
+
+    public double getQuantity() {
+        return quantity;
+    }
+
+    void addQuantity(double quantity) {
+        if (!(quantity > 0)) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        this.quantity += quantity;
+    }
+
+    public double getCalories() {
+        return food.getCalories() * quantity;
+    }
+
+    public double getProtein() {
+        return food.getProtein() * quantity;
+    }
+
+    public double getFat() {
+        return food.getFat() * quantity;
+    }
+
+    public double getCarbs() {
+        return food.getCarbs() * quantity;
+    }
+}
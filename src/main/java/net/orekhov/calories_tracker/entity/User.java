@@ -1,14 +1,22 @@
 package net.orekhov.calories_tracker.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.time.DateTimeException;
+import java.time.ZoneId;
 
 /**
  * Сущность "Пользователь", содержащая информацию о личных данных и калорийности.
  */
 @Entity
 @Table(name = "users")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 public class User {
+    public static final String DEFAULT_TIME_ZONE = "UTC";
 
     /**
      * Уникальный идентификатор пользователя (автоматически генерируется).
@@ -62,6 +70,13 @@ public class User {
     @Column(nullable = false)
     private Goal goal;
 
+    /**
+     * Часовой пояс пользователя (идентификатор IANA, например {@code Europe/Moscow}).
+     * Определяет границы дня в дневных отчетах. По умолчанию {@code UTC}.
+     */
+    @Column(name = "time_zone", nullable = false, length = 64)
+    private String timeZone = DEFAULT_TIME_ZONE;
+
     /**
      * Дневная норма калорий (автоматически рассчитывается).
      */
@@ -184,6 +199,39 @@ public class User {
         calculateDailyCalories();
     }
 
+    public String getTimeZone() {
+        return timeZone;
+    }
+
+    /**
+     * Устанавливает часовой пояс пользователя.
+     *
+     * @param timeZone Идентификатор часового пояса; {@code null} означает {@code UTC}.
+     * @throws IllegalArgumentException если часовой пояс неизвестен.
+     */
+    public void setTimeZone(String timeZone) {
+        if (timeZone == null) {
+            this.timeZone = DEFAULT_TIME_ZONE;
+            return;
+        }
+        try {
+            this.timeZone = ZoneId.of(timeZone).getId();
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Unknown time zone '" + timeZone + "'", e);
+        }
+    }
+
+    /**
+     * Возвращает часовой пояс пользователя.
+     * Для записей, созданных до появления часового пояса, используется {@code UTC}.
+     *
+     * @return Часовой пояс.
+     */
+    @JsonIgnore
+    public ZoneId getZoneId() {
+        return ZoneId.of(timeZone != null ? timeZone : DEFAULT_TIME_ZONE);
+    }
+
     public int getDailyCalories() {
         return dailyCalories;
     }
@@ -203,6 +251,7 @@ public class User {
                 ", weight=" + weight +
                 ", height=" + height +
                 ", goal=" + goal +
+                ", timeZone='" + timeZone + '\'' +
                 ", dailyCalories=" + dailyCalories +
                 '}';
     }
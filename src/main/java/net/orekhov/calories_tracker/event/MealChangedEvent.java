@@ -0,0 +1,18 @@
+package net.orekhov.calories_tracker.event;
+
+/**
+ * Событие изменения приемов пищи пользователя (создание или удаление).
+ * Публикуется {@link net.orekhov.calories_tracker.service.MealService} в транзакции изменения,
+ * слушатели получают его после фиксации через {@code @TransactionalEventListener}.
+ */
+public class MealChangedEvent {
+    private final Long userId;
+
+    public MealChangedEvent(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+}
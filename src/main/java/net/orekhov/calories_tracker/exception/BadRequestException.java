@@ -0,0 +1,38 @@
+package net.orekhov.calories_tracker.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Исключение, выбрасываемое при некорректных параметрах запроса.
+ * <p>
+ * Например, используется для недопустимого курсора пагинации или размера страницы.
+ * </p>
+ * <p>
+ * Аннотировано {@link ResponseStatus}, что автоматически возвращает HTTP 400 Bad Request.
+ * </p>
+ *
+ * @see net.orekhov.calories_tracker.exception.GlobalExceptionHandler
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BadRequestException extends RuntimeException {
+
+    /**
+     * Создает исключение с заданным сообщением.
+     *
+     * @param message Описание причины исключения.
+     */
+    public BadRequestException(String message) {
+        super(message);
+    }
+
+    /**
+     * Создает исключение с заданным сообщением и причиной.
+     *
+     * @param message Описание причины исключения.
+     * @param cause   Первоначальная причина исключения.
+     */
+    public BadRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,5 +1,6 @@
 package net.orekhov.calories_tracker.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -31,6 +32,33 @@ public class GlobalExceptionHandler {
                 .body(Map.of("error", ex.getMessage()));
     }
 
+    /**
+     * Обрабатывает некорректные параметры запроса (например, недопустимый курсор пагинации).
+     *
+     * @param ex Исключение {@link BadRequestException}.
+     * @return Ответ с HTTP-статусом 400 и сообщением ошибки.
+     */
+    @ExceptionHandler(BadRequestException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ResponseEntity<Map<String, String>> handleBadRequest(BadRequestException ex) {
+        return ResponseEntity.badRequest()
+                .body(Map.of("error", ex.getMessage()));
+    }
+
+    /**
+     * Обрабатывает превышение ограничения частоты запросов пользователя.
+     *
+     * @param ex Исключение {@link TooManyRequestsException}.
+     * @return Ответ с HTTP-статусом 429, заголовком {@code Retry-After} и сообщением ошибки.
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public ResponseEntity<Map<String, String>> handleTooManyRequests(TooManyRequestsException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(Map.of("error", ex.getMessage()));
+    }
+
     /**
      * Обрабатывает ситуацию, когда запрашиваемый URL не существует.
      *
@@ -0,0 +1,25 @@
+package net.orekhov.calories_tracker.exception;
+
+/**
+ * Исключение, выбрасываемое при превышении ограничения частоты запросов.
+ * <p>
+ * Обрабатывается {@link GlobalExceptionHandler}: HTTP 429 Too Many Requests с заголовком {@code Retry-After}.
+ * </p>
+ *
+ * @see net.orekhov.calories_tracker.ratelimit.RateLimitFilter
+ */
+public class TooManyRequestsException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    /**
+     * @param retryAfterSeconds Время в секундах, через которое запрос можно повторить.
+     */
+    public TooManyRequestsException(long retryAfterSeconds) {
+        super("Too many requests");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
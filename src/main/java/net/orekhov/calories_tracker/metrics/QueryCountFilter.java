@@ -0,0 +1,54 @@
+package net.orekhov.calories_tracker.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Записывает количество SQL-запросов на один HTTP-запрос в метрику {@value #METRIC_NAME}
+ * с тегами {@code method} и {@code uri} (шаблон пути контроллера, как в {@code http.server.requests}).
+ * <p>
+ * Учитываются запросы, выполненные в потоке обработки запроса; асинхронная часть
+ * ответа ({@code StreamingResponseBody}) выполняется в другом потоке и не входит в подсчет.
+ * </p>
+ */
+public class QueryCountFilter extends OncePerRequestFilter {
+    static final String METRIC_NAME = "http.server.requests.queries";
+
+    private final MeterRegistry meterRegistry;
+
+    public QueryCountFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryCountInspector.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int queries = QueryCountInspector.stop();
+            DistributionSummary.builder(METRIC_NAME)
+                    .description("SQL statements executed per HTTP request")
+                    .baseUnit("queries")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri(request))
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry)
+                    .record(queries);
+        }
+    }
+
+    private static String uri(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+}
@@ -0,0 +1,41 @@
+package net.orekhov.calories_tracker.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Считает SQL-запросы, которые Hibernate подготавливает в текущем потоке.
+ * <p>
+ * Подсчет ведется только между {@link #start()} и {@link #stop()}; вне этого окна
+ * инспектор ничего не делает. SQL не изменяется.
+ * </p>
+ */
+public class QueryCountInspector implements StatementInspector {
+    private static final ThreadLocal<int[]> COUNTER = new ThreadLocal<>();
+
+    /**
+     * Начинает подсчет запросов в текущем потоке.
+     */
+    public static void start() {
+        COUNTER.set(new int[1]);
+    }
+
+    /**
+     * Завершает подсчет в текущем потоке.
+     *
+     * @return количество запросов с момента {@link #start()}, 0 если подсчет не был начат
+     */
+    public static int stop() {
+        int[] counter = COUNTER.get();
+        COUNTER.remove();
+        return counter != null ? counter[0] : 0;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] counter = COUNTER.get();
+        if (counter != null) {
+            counter[0]++;
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,46 @@
+package net.orekhov.calories_tracker.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Доля попаданий в регионы кэша второго уровня Hibernate.
+ * <p>
+ * Счетчики попаданий, промахов и записей по регионам публикует {@code HibernateMetrics}
+ * ({@code hibernate.second.level.cache.requests}, {@code hibernate.second.level.cache.puts});
+ * здесь добавляется готовое отношение {@code hibernate.second.level.cache.hit.ratio} для каждого региона.
+ * </p>
+ */
+public class SecondLevelCacheMetrics implements MeterBinder {
+    private final Statistics statistics;
+
+    public SecondLevelCacheMetrics(Statistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            Gauge.builder("hibernate.second.level.cache.hit.ratio", statistics, s -> hitRatio(s, region))
+                    .tag("region", region)
+                    .description("Share of second-level cache lookups served from the region")
+                    .register(registry);
+        }
+    }
+
+    /**
+     * @return Доля попаданий от 0 до 1, либо {@code NaN}, если к региону еще не обращались.
+     */
+    static double hitRatio(Statistics statistics, String region) {
+        CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+        if (regionStatistics == null) {
+            return Double.NaN;
+        }
+        long hits = regionStatistics.getHitCount();
+        long requests = hits + regionStatistics.getMissCount();
+        return requests == 0 ? Double.NaN : (double) hits / requests;
+    }
+}
@@ -0,0 +1,157 @@
+package net.orekhov.calories_tracker.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.orekhov.calories_tracker.exception.TooManyRequestsException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничивает частоту запросов к API по IP-адресу клиента и по пользователю.
+ * <p>
+ * Каждый запрос забирает токен из корзины IP-адреса ({@link HttpServletRequest#getRemoteAddr()}), а запросы
+ * к данным пользователя ({@code /reports/{userId}/**}, {@code /meals/user/{userId}}) — также из корзины
+ * этого пользователя. При пустой корзине запрос отклоняется до контроллера ответом {@code 429 Too Many Requests}
+ * с заголовком {@code Retry-After}. Эндпоинты Actuator не ограничиваются.
+ * </p>
+ * <p>
+ * Запросы, передающие пользователя в теле ({@code POST /meals}), фильтр ограничивает только по IP-адресу;
+ * токен пользователя для них берет контроллер через {@link #acquireUserToken(Long)} после чтения тела.
+ * </p>
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+    static final String REJECTED_METRIC = "http.server.requests.rejected";
+
+    private static final List<PathPattern> USER_PATHS = List.of(
+            PathPatternParser.defaultInstance.parse("/reports/{userId}/**"),
+            PathPatternParser.defaultInstance.parse("/meals/user/{userId}"));
+
+    private final TokenBucketLimiter<String> ipLimiter;
+    private final TokenBucketLimiter<Long> userLimiter;
+    private final Counter ipRejected;
+    private final Counter userRejected;
+
+    /**
+     * @param ipLimiter     Корзины IP-адресов.
+     * @param userLimiter   Корзины пользователей.
+     * @param meterRegistry Реестр метрик для {@value #REJECTED_METRIC} и {@code rate.limit.buckets}.
+     */
+    public RateLimitFilter(TokenBucketLimiter<String> ipLimiter, TokenBucketLimiter<Long> userLimiter,
+                           MeterRegistry meterRegistry) {
+        this.ipLimiter = ipLimiter;
+        this.userLimiter = userLimiter;
+        this.ipRejected = rejectedCounter(meterRegistry, "ip");
+        this.userRejected = rejectedCounter(meterRegistry, "user");
+        Gauge.builder("rate.limit.buckets", ipLimiter, TokenBucketLimiter::size)
+                .description("Token buckets currently held by the rate limiter")
+                .tag("limit", "ip")
+                .register(meterRegistry);
+        Gauge.builder("rate.limit.buckets", userLimiter, TokenBucketLimiter::size)
+                .description("Token buckets currently held by the rate limiter")
+                .tag("limit", "user")
+                .register(meterRegistry);
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String limit) {
+        return Counter.builder(REJECTED_METRIC)
+                .description("Requests rejected with 429 by the rate limiter")
+                .tag("limit", limit)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return path(request).startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long now = System.nanoTime();
+        long wait = ipLimiter.tryAcquire(request.getRemoteAddr(), now);
+        if (wait > 0) {
+            ipRejected.increment();
+            reject(response, wait);
+            return;
+        }
+        Long userId = userId(request);
+        if (userId != null) {
+            wait = userLimiter.tryAcquire(userId, now);
+            if (wait > 0) {
+                userRejected.increment();
+                reject(response, wait);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Забирает токен из корзины пользователя для запроса, в котором пользователь указан в теле.
+     *
+     * @param userId ID пользователя.
+     * @throws TooManyRequestsException если корзина пользователя пуста.
+     */
+    public void acquireUserToken(Long userId) {
+        long wait = userLimiter.tryAcquire(userId, System.nanoTime());
+        if (wait > 0) {
+            userRejected.increment();
+            throw new TooManyRequestsException(retryAfterSeconds(wait));
+        }
+    }
+
+    /**
+     * Удаляет полные корзины, чтобы память не росла с количеством когда-либо обращавшихся клиентов.
+     */
+    @Scheduled(fixedDelayString = "${calories-tracker.rate-limit.sweep-interval:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        ipLimiter.evictIdle(now);
+        userLimiter.evictIdle(now);
+    }
+
+    private static void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds(waitNanos)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"Too many requests\"}");
+    }
+
+    private static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    private static Long userId(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(path(request));
+        for (PathPattern pattern : USER_PATHS) {
+            PathPattern.PathMatchInfo match = pattern.matchAndExtract(path);
+            if (match != null) {
+                try {
+                    return Long.valueOf(match.getUriVariables().get("userId"));
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
@@ -0,0 +1,81 @@
+package net.orekhov.calories_tracker.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Набор token bucket по ключу (IP-адрес, ID пользователя) без блокировок.
+ * <p>
+ * Состояние корзины — одно число: момент времени ({@link System#nanoTime()}), когда корзина опустеет при
+ * текущем расходе. Запрос забирает токен, сдвигая этот момент на интервал пополнения одного токена,
+ * если он не уходит дальше чем на {@code capacity} интервалов вперед; обновление выполняется CAS без
+ * блокировок и без выделения памяти. Корзина, момент которой уже прошел, полна и не отличается от новой,
+ * поэтому {@link #evictIdle(long)} удаляет такие корзины без потери информации.
+ * </p>
+ *
+ * @param <K> Тип ключа.
+ */
+public class TokenBucketLimiter<K> {
+    private final int capacity;
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final ConcurrentHashMap<K, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * @param capacity        Емкость корзины (допустимый всплеск запросов).
+     * @param refillPerSecond Скорость пополнения, токенов в секунду.
+     */
+    public TokenBucketLimiter(int capacity, double refillPerSecond) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Capacity and refill rate must be positive");
+        }
+        this.capacity = capacity;
+        this.nanosPerToken = Math.max(1, (long) (1_000_000_000L / refillPerSecond));
+        this.burstNanos = nanosPerToken * capacity;
+    }
+
+    /**
+     * Пытается забрать токен из корзины ключа.
+     *
+     * @param key Ключ корзины.
+     * @param now Текущее время {@link System#nanoTime()}.
+     * @return {@code 0}, если токен получен, иначе время в наносекундах до появления токена.
+     */
+    public long tryAcquire(K key, long now) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(Long.MIN_VALUE));
+        }
+        while (true) {
+            long emptyAt = bucket.get();
+            long next = Math.max(emptyAt, now) + nanosPerToken;
+            long excess = next - now - burstNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (bucket.compareAndSet(emptyAt, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Удаляет полные корзины: следующий запрос по ключу создаст новую с тем же состоянием.
+     *
+     * @param now Текущее время {@link System#nanoTime()}.
+     */
+    public void evictIdle(long now) {
+        buckets.values().removeIf(bucket -> bucket.get() <= now);
+    }
+
+    /**
+     * @return Количество хранимых корзин.
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,116 @@
+package net.orekhov.calories_tracker.repository;
+
+import jakarta.persistence.QueryHint;
+import net.orekhov.calories_tracker.dto.CohortDayRow;
+import net.orekhov.calories_tracker.dto.DailyTotals;
+import net.orekhov.calories_tracker.dto.NutritionBucket;
+import net.orekhov.calories_tracker.entity.DailyCalorieSummary;
+import net.orekhov.calories_tracker.entity.DailyCalorieSummaryId;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Репозиторий для дневных сводок питания {@link DailyCalorieSummary}.
+ * <p>
+ * Изменяющие native-запросы объявляют затрагиваемую таблицу ({@link HibernateHints#HINT_NATIVE_SPACES}):
+ * без этого Hibernate после каждого такого запроса очищает весь кэш второго уровня.
+ * </p>
+ */
+@Repository
+public interface DailyCalorieSummaryRepository extends JpaRepository<DailyCalorieSummary, DailyCalorieSummaryId> {
+    String SUMMARY_TABLE = "daily_calorie_summary";
+
+    /**
+     * Атомарно прибавляет значения к сводке за день, создавая строку при ее отсутствии.
+     * <p>
+     * Для вычитания (удаление приема пищи) передаются отрицательные значения. Запрос возвращает
+     * строку через {@code RETURNING}, поэтому объявлен без {@link Modifying}.
+     * </p>
+     *
+     * @param userId    ID пользователя.
+     * @param day       День сводки.
+     * @param calories  Изменение калорий.
+     * @param protein   Изменение белков.
+     * @param fat       Изменение жиров.
+     * @param carbs     Изменение углеводов.
+     * @param mealCount Изменение количества приемов пищи.
+     * @return Калории и количество приемов пищи в сводке после изменения.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = SUMMARY_TABLE))
+    @Query(value = "INSERT INTO daily_calorie_summary (user_id, day, calories, protein, fat, carbs, meal_count) " +
+            "VALUES (:userId, :day, :calories, :protein, :fat, :carbs, :mealCount) " +
+            "ON CONFLICT (user_id, day) DO UPDATE SET " +
+            "calories = daily_calorie_summary.calories + EXCLUDED.calories, " +
+            "protein = daily_calorie_summary.protein + EXCLUDED.protein, " +
+            "fat = daily_calorie_summary.fat + EXCLUDED.fat, " +
+            "carbs = daily_calorie_summary.carbs + EXCLUDED.carbs, " +
+            "meal_count = daily_calorie_summary.meal_count + EXCLUDED.meal_count " +
+            "RETURNING calories AS \"calories\", meal_count AS \"mealCount\"",
+            nativeQuery = true)
+    DailyTotals addToSummary(Long userId, LocalDate day, long calories, double protein, double fat, double carbs, int mealCount);
+
+    /**
+     * Удаляет все дневные сводки.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = SUMMARY_TABLE))
+    @Query(value = "DELETE FROM daily_calorie_summary", nativeQuery = true)
+    void deleteAllSummaries();
+
+    /**
+     * Заново заполняет дневные сводки по снимкам пищевой ценности в {@code meals}.
+     *
+     * @return Количество созданных строк сводки.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = SUMMARY_TABLE))
+    @Query(value = "INSERT INTO daily_calorie_summary (user_id, day, calories, protein, fat, carbs, meal_count) " +
+            "SELECT m.user_id, m.local_day, SUM(m.total_calories), SUM(m.total_protein), SUM(m.total_fat), " +
+            "SUM(m.total_carbs), COUNT(*) " +
+            "FROM meals m " +
+            "GROUP BY m.user_id, m.local_day",
+            nativeQuery = true)
+    int insertSummariesFromMeals();
+
+    /**
+     * Суммирует дневные сводки пользователя за период с группировкой по интервалам.
+     * Период длиной в несколько месяцев читает не больше одной строки сводки на день.
+     *
+     * @param userId    ID пользователя.
+     * @param truncUnit Единица {@code date_trunc}: {@code day}, {@code week} или {@code month}.
+     * @param from      Первый день периода (включительно).
+     * @param to        Последний день периода (включительно).
+     * @return Интервалы с данными в порядке возрастания даты.
+     */
+    @Query(value = "SELECT CAST(date_trunc(:truncUnit, CAST(s.day AS timestamp)) AS date) AS \"periodStart\", " +
+            "SUM(s.calories) AS \"calories\", SUM(s.protein) AS \"protein\", SUM(s.fat) AS \"fat\", " +
+            "SUM(s.carbs) AS \"carbs\", SUM(s.meal_count) AS \"mealCount\" " +
+            "FROM daily_calorie_summary s " +
+            "WHERE s.user_id = :userId AND s.day BETWEEN :from AND :to " +
+            "GROUP BY 1 ORDER BY 1",
+            nativeQuery = true)
+    List<NutritionBucket> sumByPeriod(Long userId, String truncUnit, LocalDate from, LocalDate to);
+
+    /**
+     * Потоково читает непустые дневные сводки начиная с заданного дня вместе с целью и нормой пользователя.
+     *
+     * @param from Первый день (включительно).
+     * @return Поток строк; должен закрываться и читаться в транзакции.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u.goal AS goal, u.dailyCalories AS dailyCalories, s.day AS day, s.calories AS calories " +
+            "FROM DailyCalorieSummary s JOIN User u ON u.id = s.userId " +
+            "WHERE s.day >= :from AND s.mealCount > 0")
+    Stream<CohortDayRow> streamCohortRowsSince(LocalDate from);
+}
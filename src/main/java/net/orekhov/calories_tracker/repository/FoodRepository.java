@@ -2,6 +2,7 @@ package net.orekhov.calories_tracker.repository;
 
 import net.orekhov.calories_tracker.entity.Food;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -10,13 +11,15 @@ import java.util.Optional;
  * Репозиторий для работы с сущностью {@link Food}.
  */
 @Repository
-public interface FoodRepository extends JpaRepository<Food, Long> {
+public interface FoodRepository extends JpaRepository<Food, Long>, FoodRepositoryCustom {
 
     /**
      * Находит продукт по названию (без учета регистра).
+     * Сравнение через {@code lower(name)} использует уникальный индекс {@code uk_foods_lower_name}.
      *
      * @param name Название блюда.
      * @return Опциональный объект {@link Food}, если найден.
      */
+    @Query("SELECT f FROM Food f WHERE lower(f.name) = lower(:name)")
     Optional<Food> findFirstByNameIgnoreCase(String name);
 }
@@ -0,0 +1,24 @@
+package net.orekhov.calories_tracker.repository;
+
+import net.orekhov.calories_tracker.entity.Food;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Дополнительные методы {@link FoodRepository}, реализованные вручную.
+ */
+public interface FoodRepositoryCustom {
+
+    /**
+     * Загружает блюда по списку ID с учетом кэша второго уровня.
+     * <p>
+     * В отличие от {@code findAllById}, который всегда выполняет запрос {@code IN}, блюда из контекста
+     * персистентности и кэша второго уровня не запрашиваются; остальные загружаются одним запросом.
+     * </p>
+     *
+     * @param ids ID блюд.
+     * @return Найденные блюда; ненайденные ID пропускаются.
+     */
+    List<Food> findAllByIdCached(Collection<Long> ids);
+}
@@ -0,0 +1,35 @@
+package net.orekhov.calories_tracker.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import net.orekhov.calories_tracker.entity.Food;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Реализация {@link FoodRepositoryCustom} через {@code Session#byMultipleIds}.
+ */
+public class FoodRepositoryImpl implements FoodRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Food> findAllByIdCached(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<Food> foods = entityManager.unwrap(Session.class)
+                .byMultipleIds(Food.class)
+                // без явного режима кэша multiLoad не проверяет кэш второго уровня
+                .with(CacheMode.NORMAL)
+                .enableSessionCheck(true)
+                .multiLoad(new ArrayList<>(ids));
+        return foods.stream().filter(Objects::nonNull).toList();
+    }
+}
@@ -1,12 +1,21 @@
 package net.orekhov.calories_tracker.repository;
 
+import jakarta.persistence.QueryHint;
+import net.orekhov.calories_tracker.dto.MealExportRow;
 import net.orekhov.calories_tracker.entity.Meal;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Репозиторий для управления сущностями {@link Meal}.
@@ -16,21 +25,70 @@ import java.util.List;
 public interface MealRepository extends JpaRepository<Meal, Long> {
 
     /**
-     * Находит все приемы пищи пользователя, отсортированные по дате убывания.
+     * Находит ID первых приемов пищи пользователя в порядке {@code (date_time, id)} по убыванию.
+     *
+     * @param userId   ID пользователя.
+     * @param pageable Ограничение количества строк (используется только размер страницы).
+     * @return Список ID приемов пищи.
+     */
+    @Query("SELECT m.id FROM Meal m WHERE m.user.id = :userId ORDER BY m.dateTime DESC, m.id DESC")
+    List<Long> findPageIds(Long userId, Pageable pageable);
+
+    /**
+     * Находит ID приемов пищи пользователя, идущих после курсора в порядке {@code (date_time, id)} по убыванию.
+     * <p>
+     * Keyset-пагинация: условие по ключу сортировки позволяет читать любую страницу по индексу
+     * {@code (user_id, date_time, id)} так же дешево, как первую, без OFFSET.
+     * </p>
+     *
+     * @param userId   ID пользователя.
+     * @param dateTime Дата и время последнего приема пищи предыдущей страницы.
+     * @param id       ID последнего приема пищи предыдущей страницы.
+     * @param pageable Ограничение количества строк (используется только размер страницы).
+     * @return Список ID приемов пищи.
+     */
+    @Query("SELECT m.id FROM Meal m WHERE m.user.id = :userId AND (m.dateTime, m.id) < (:dateTime, :id) " +
+            "ORDER BY m.dateTime DESC, m.id DESC")
+    List<Long> findPageIdsBefore(Long userId, LocalDateTime dateTime, Long id, Pageable pageable);
+
+    /**
+     * Загружает приемы пищи по списку ID вместе с пользователем, позициями и блюдами одним запросом.
+     *
+     * @param ids ID приемов пищи.
+     * @return Список приемов пищи, отсортированный по {@code (date_time, id)} по убыванию.
+     */
+    @EntityGraph(attributePaths = {"user", "items", "items.food"})
+    @Query("SELECT m FROM Meal m WHERE m.id IN :ids ORDER BY m.dateTime DESC, m.id DESC")
+    List<Meal> findAllWithFoodsByIdIn(Collection<Long> ids);
+
+    /**
+     * Потоково читает всю историю приемов пищи пользователя в виде плоских строк (прием пищи x блюдо).
+     * <p>
+     * Результат читается курсором с ограниченным размером выборки (JDBC fetch size) и без
+     * создания управляемых сущностей, поэтому потребление памяти не зависит от объема истории.
+     * Должен вызываться внутри транзакции, поток необходимо закрыть после чтения.
+     * </p>
      *
      * @param userId ID пользователя.
-     * @return Список приемов пищи, отсортированный по дате убывания.
+     * @return Поток строк, отсортированный по {@code (date_time, id)} по убыванию.
      */
-    List<Meal> findByUser_IdOrderByDateTimeDesc(Long userId);
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT m.id AS mealId, m.dateTime AS dateTime, f.id AS foodId, f.name AS foodName, " +
+            "i.quantity AS quantity, m.totalCalories AS totalCalories, m.totalProtein AS totalProtein, " +
+            "m.totalFat AS totalFat, m.totalCarbs AS totalCarbs " +
+            "FROM Meal m JOIN m.items i JOIN i.food f WHERE m.user.id = :userId " +
+            "ORDER BY m.dateTime DESC, m.id DESC, i.id")
+    Stream<MealExportRow> streamExportRows(Long userId);
 
     /**
-     * Получает все приемы пищи пользователя за текущий день.
+     * Находит уже сохраненные ID запросов асинхронной записи среди переданных.
      *
-     * @param userId     ID пользователя.
-     * @param startOfDay Начало дня (00:00:00).
-     * @param endOfDay   Конец дня (23:59:59).
-     * @return Список приемов пищи за текущий день.
+     * @param requestIds ID запросов.
+     * @return Найденные ID запросов.
      */
-    @Query("SELECT m FROM Meal m WHERE m.user.id = :userId AND m.dateTime BETWEEN :startOfDay AND :endOfDay")
-    List<Meal> findMealsForUserToday(Long userId, LocalDateTime startOfDay, LocalDateTime endOfDay);
+    @Query("SELECT m.requestId FROM Meal m WHERE m.requestId IN :requestIds")
+    List<UUID> findExistingRequestIds(Collection<UUID> requestIds);
 }
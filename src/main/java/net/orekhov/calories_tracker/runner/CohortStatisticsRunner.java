@@ -0,0 +1,29 @@
+package net.orekhov.calories_tracker.runner;
+
+import net.orekhov.calories_tracker.service.CohortReportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Заполняет когортную статистику по дневным сводкам при запуске приложения.
+ * Дальше статистика обновляется при изменении сводок.
+ */
+@Component
+public class CohortStatisticsRunner implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(CohortStatisticsRunner.class);
+
+    private final CohortReportService cohortReportService;
+
+    public CohortStatisticsRunner(CohortReportService cohortReportService) {
+        this.cohortReportService = cohortReportService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int rows = cohortReportService.rebuild();
+        log.info("Cohort statistics built: {} user days", rows);
+    }
+}
@@ -0,0 +1,41 @@
+package net.orekhov.calories_tracker.runner;
+
+import net.orekhov.calories_tracker.service.DailySummaryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Команда пересчета дневных сводок при запуске приложения.
+ * <p>
+ * Выполняется, если приложение запущено с аргументом {@code --rebuild-daily-summary}, например:
+ * {@code ./mvnw spring-boot:run -Dspring-boot.run.arguments=--rebuild-daily-summary}.
+ * Выполняется раньше остальных команд запуска, чтобы когортная статистика строилась по пересчитанным сводкам.
+ * </p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class DailySummaryRebuildRunner implements ApplicationRunner {
+    static final String REBUILD_OPTION = "rebuild-daily-summary";
+
+    private static final Logger log = LoggerFactory.getLogger(DailySummaryRebuildRunner.class);
+
+    private final DailySummaryService dailySummaryService;
+
+    public DailySummaryRebuildRunner(DailySummaryService dailySummaryService) {
+        this.dailySummaryService = dailySummaryService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(REBUILD_OPTION)) {
+            return;
+        }
+        int rows = dailySummaryService.rebuild();
+        log.info("Daily calorie summary rebuilt: {} rows", rows);
+    }
+}
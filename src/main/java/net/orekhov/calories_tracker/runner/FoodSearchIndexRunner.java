@@ -0,0 +1,29 @@
+package net.orekhov.calories_tracker.runner;
+
+import net.orekhov.calories_tracker.service.FoodService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Заполняет поисковый индекс блюд при запуске приложения.
+ * Дальше индекс обновляется при создании блюд.
+ */
+@Component
+public class FoodSearchIndexRunner implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(FoodSearchIndexRunner.class);
+
+    private final FoodService foodService;
+
+    public FoodSearchIndexRunner(FoodService foodService) {
+        this.foodService = foodService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int size = foodService.rebuildSearchIndex();
+        log.info("Food search index built: {} foods", size);
+    }
+}
@@ -0,0 +1,31 @@
+package net.orekhov.calories_tracker.runner;
+
+import net.orekhov.calories_tracker.wal.MealLogFlusher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Переносит в базу приемы пищи, оставшиеся в журнале упреждающей записи после остановки или падения.
+ * Записи, уже сохраненные до падения, пропускаются по {@code request_id}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "calories-tracker.meal-log", name = "enabled", havingValue = "true")
+public class MealLogReplayRunner implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(MealLogReplayRunner.class);
+
+    private final MealLogFlusher mealLogFlusher;
+
+    public MealLogReplayRunner(MealLogFlusher mealLogFlusher) {
+        this.mealLogFlusher = mealLogFlusher;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int replayed = mealLogFlusher.drain();
+        log.info("Meal log replayed: {} meals", replayed);
+    }
+}
@@ -0,0 +1,476 @@
+package net.orekhov.calories_tracker.search;
+
+import net.orekhov.calories_tracker.entity.Food;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Индекс поиска и автодополнения по названиям блюд в памяти.
+ * <p>
+ * Состоит из двух частей:
+ * <ul>
+ *     <li>префиксное дерево по началу названия и по началу каждого слова в названии;
+ *     каждый узел хранит уже отранжированные лучшие совпадения, поэтому короткий префикс
+ *     не требует обхода поддерева. Глубина дерева ограничена {@link #MAX_TRIE_DEPTH}, узлы
+ *     последнего уровня хранят все совпадения, упорядоченные по ключу, и для длинного префикса
+ *     выбирается только их диапазон;</li>
+ *     <li>индекс триграмм по словарю слов из названий: слова запроса с опечатками заменяются
+ *     близкими по расстоянию Левенштейна словарными словами, и поиск повторяется по дереву.
+ *     Используется, только если префиксных совпадений меньше запрошенного количества.</li>
+ * </ul>
+ * Ранжирование: точное совпадение, затем совпадение с началом названия, затем с началом слова,
+ * затем нечеткие совпадения по возрастанию расстояния; при равенстве короткие названия выше.
+ * Индекс заполняется при запуске и обновляется при создании блюда.
+ * </p>
+ */
+@Component
+public class FoodSearchIndex {
+    /** Максимальное количество результатов поиска. */
+    public static final int MAX_LIMIT = 50;
+
+    static final int MAX_TRIE_DEPTH = 8;
+    private static final int MAX_CORRECTIONS = 3;
+    private static final int MAX_FUZZY_VARIANTS = 9;
+
+    private static final int TIER_EXACT = 0;
+    private static final int TIER_NAME_PREFIX = 1;
+    private static final int TIER_WORD_PREFIX = 2;
+    private static final int TIER_FUZZY = 3;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Food> foods = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+    private final Map<Long, Integer> positions = new HashMap<>();
+    private final List<String> words = new ArrayList<>();
+    private final Map<String, Integer> wordPositions = new HashMap<>();
+    private final Map<String, IntList> wordTrigrams = new HashMap<>();
+    private TrieNode root = new TrieNode();
+
+    /**
+     * Приводит название или запрос к виду, в котором они хранятся в индексе:
+     * нижний регистр, без крайних пробелов, повторяющиеся пробелы схлопнуты.
+     *
+     * @param text Название или поисковый запрос.
+     * @return Нормализованная строка.
+     */
+    public static String normalize(String text) {
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Полностью перестраивает индекс.
+     *
+     * @param catalog Все блюда каталога.
+     */
+    public void rebuild(Collection<Food> catalog) {
+        lock.writeLock().lock();
+        try {
+            foods.clear();
+            names.clear();
+            positions.clear();
+            words.clear();
+            wordPositions.clear();
+            wordTrigrams.clear();
+            root = new TrieNode();
+            catalog.forEach(this::addUnlocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Добавляет блюдо в индекс. Блюда без ID и уже проиндексированные блюда игнорируются.
+     *
+     * @param food Блюдо.
+     */
+    public void add(Food food) {
+        lock.writeLock().lock();
+        try {
+            addUnlocked(food);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает количество проиндексированных блюд.
+     *
+     * @return Размер индекса.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return foods.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ищет блюда по префиксу названия или слова, а при нехватке результатов — с учетом опечаток.
+     *
+     * @param query Поисковый запрос.
+     * @param limit Максимальное количество результатов (от 1 до {@link #MAX_LIMIT}).
+     * @return Отранжированный список блюд.
+     */
+    public List<Food> search(String query, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Map<Integer, Match> matches = new LinkedHashMap<>();
+            collectPrefixMatches(q, limit, matches);
+            if (matches.size() < limit) {
+                collectFuzzyMatches(q, limit, matches);
+            }
+            return matches.values().stream()
+                    .sorted()
+                    .limit(limit)
+                    .map(match -> foods.get(match.position))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addUnlocked(Food food) {
+        if (food.getId() == null || positions.containsKey(food.getId())) {
+            return;
+        }
+        int position = foods.size();
+        String name = normalize(food.getName());
+        foods.add(food);
+        names.add(name);
+        positions.put(food.getId(), position);
+
+        for (int start = 0; start < name.length(); start++) {
+            if (start == 0 || name.charAt(start - 1) == ' ') {
+                insertIntoTrie(name.substring(start), new Match(position, start == 0 ? TIER_NAME_PREFIX : TIER_WORD_PREFIX, name));
+            }
+        }
+        for (String word : name.split(" ")) {
+            if (!wordPositions.containsKey(word)) {
+                wordPositions.put(word, words.size());
+                for (String trigram : trigramsOf(word)) {
+                    wordTrigrams.computeIfAbsent(trigram, key -> new IntList()).add(words.size());
+                }
+                words.add(word);
+            }
+        }
+    }
+
+    private void insertIntoTrie(String key, Match match) {
+        TrieNode node = root;
+        int depth = Math.min(key.length(), MAX_TRIE_DEPTH);
+        for (int i = 0; i < depth; i++) {
+            node = node.children.computeIfAbsent(key.charAt(i), c -> new TrieNode());
+            node.offerTop(match);
+            if (i == MAX_TRIE_DEPTH - 1) {
+                node.all.put(key + '\0' + match.position, match);
+            }
+        }
+    }
+
+    private void collectPrefixMatches(String q, int limit, Map<Integer, Match> matches) {
+        TrieNode node = root;
+        int depth = Math.min(q.length(), MAX_TRIE_DEPTH);
+        for (int i = 0; i < depth && node != null; i++) {
+            node = node.children.get(q.charAt(i));
+        }
+        if (node == null) {
+            return;
+        }
+        if (q.length() <= MAX_TRIE_DEPTH) {
+            for (Match match : node.top) {
+                offer(matches, q, match);
+            }
+            return;
+        }
+        node.all.subMap(q, q + Character.MAX_VALUE).values().stream()
+                .sorted()
+                .limit(limit * 2L)
+                .forEach(match -> offer(matches, q, match));
+    }
+
+    private void offer(Map<Integer, Match> matches, String q, Match match) {
+        Match ranked = match.tier == TIER_NAME_PREFIX && match.name.equals(q)
+                ? new Match(match.position, TIER_EXACT, match.name)
+                : match;
+        matches.merge(ranked.position, ranked, (a, b) -> a.compareTo(b) <= 0 ? a : b);
+    }
+
+    /**
+     * Исправляет опечатки в словах запроса по словарю названий и ищет по исправленным вариантам.
+     * Последнее слово запроса сравнивается с началом словарных слов, остальные — целиком.
+     */
+    private void collectFuzzyMatches(String q, int limit, Map<Integer, Match> matches) {
+        String[] tokens = q.split(" ");
+        List<Correction> variants = List.of(new Correction("", 0));
+        for (int i = 0; i < tokens.length; i++) {
+            List<Correction> options = corrections(tokens[i], i == tokens.length - 1);
+            List<Correction> next = new ArrayList<>();
+            for (Correction variant : variants) {
+                for (Correction option : options) {
+                    String text = variant.text.isEmpty() ? option.text : variant.text + ' ' + option.text;
+                    next.add(new Correction(text, variant.distance + option.distance));
+                }
+            }
+            next.sort(Comparator.comparingInt(Correction::distance));
+            variants = next.subList(0, Math.min(next.size(), MAX_FUZZY_VARIANTS));
+        }
+
+        for (Correction variant : variants) {
+            if (variant.distance == 0) {
+                continue;
+            }
+            Map<Integer, Match> corrected = new LinkedHashMap<>();
+            collectPrefixMatches(variant.text, limit, corrected);
+            for (Match match : corrected.values()) {
+                matches.putIfAbsent(match.position, new Match(match.position, TIER_FUZZY + variant.distance, match.name));
+            }
+        }
+    }
+
+    /**
+     * Подбирает словарные слова, близкие к слову запроса.
+     *
+     * @return Само слово с расстоянием 0, если оно есть в словаре, иначе до {@link #MAX_CORRECTIONS}
+     * ближайших слов; если близких слов нет — само слово.
+     */
+    private List<Correction> corrections(String token, boolean prefix) {
+        int maxDistance = token.length() <= 2 ? 0 : token.length() <= 4 ? 1 : 2;
+        List<String> queryTrigrams = trigramsOf(token);
+        // Каждая опечатка портит не более трех триграмм слова
+        int minShared = Math.max(1, queryTrigrams.size() - 3 * maxDistance);
+
+        List<IntList> postingLists = new ArrayList<>(queryTrigrams.size());
+        int postingCount = 0;
+        for (String trigram : queryTrigrams) {
+            IntList postings = wordTrigrams.get(trigram);
+            if (postings != null) {
+                postingLists.add(postings);
+                postingCount += postings.size;
+            }
+        }
+        // Общие триграммы считаются только для слов из списков триграмм запроса, а не для всего словаря
+        PositionCounts shared = new PositionCounts(postingCount);
+        IntList candidates = new IntList();
+        for (IntList postings : postingLists) {
+            for (int i = 0; i < postings.size; i++) {
+                int position = postings.values[i];
+                if (shared.increment(position) == minShared) {
+                    candidates.add(position);
+                }
+            }
+        }
+
+        List<Correction> corrections = new ArrayList<>();
+        for (int i = 0; i < candidates.size; i++) {
+            String word = words.get(candidates.values[i]);
+            int distance = prefix ? prefixDistance(token, word, maxDistance) : editDistance(token, word, maxDistance);
+            if (distance == 0) {
+                return List.of(new Correction(token, 0));
+            }
+            if (distance <= maxDistance) {
+                corrections.add(new Correction(word, distance));
+            }
+        }
+        if (corrections.isEmpty()) {
+            return List.of(new Correction(token, 0));
+        }
+        corrections.sort(Comparator.comparingInt(Correction::distance)
+                .thenComparingInt(correction -> correction.text.length())
+                .thenComparing(Correction::text));
+        return corrections.subList(0, Math.min(corrections.size(), MAX_CORRECTIONS));
+    }
+
+    /**
+     * Расстояние Левенштейна между словами. Вычисление прекращается,
+     * как только расстояние превышает {@code maxDistance}.
+     */
+    static int editDistance(String query, String word, int maxDistance) {
+        if (Math.abs(query.length() - word.length()) > maxDistance) {
+            return maxDistance + 1;
+        }
+        int[] previous = new int[word.length() + 1];
+        int[] current = new int[word.length() + 1];
+        for (int j = 0; j <= word.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= query.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= word.length(); j++) {
+                int cost = query.charAt(i - 1) == word.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxDistance) {
+                return rowMin;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[word.length()];
+    }
+
+    /**
+     * Минимальное расстояние Левенштейна между запросом и любым префиксом названия.
+     * Вычисление прекращается, как только расстояние превышает {@code maxDistance}.
+     */
+    static int prefixDistance(String query, String name, int maxDistance) {
+        int columns = Math.min(name.length(), query.length() + maxDistance);
+        int[] previous = new int[columns + 1];
+        int[] current = new int[columns + 1];
+        for (int j = 0; j <= columns; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= query.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= columns; j++) {
+                int cost = query.charAt(i - 1) == name.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxDistance) {
+                return rowMin;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Arrays.stream(previous).min().orElse(query.length());
+    }
+
+    private static List<String> trigramsOf(String text) {
+        String padded = "  " + text + " ";
+        List<String> result = new ArrayList<>(padded.length() - 2);
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            String trigram = padded.substring(i, i + 3);
+            if (!result.contains(trigram)) {
+                result.add(trigram);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Совпадение с рангом: меньше — выше в выдаче.
+     */
+    private record Match(int position, int tier, String name) implements Comparable<Match> {
+        private static final Comparator<Match> ORDER = Comparator.comparingInt(Match::tier)
+                .thenComparingInt(match -> match.name.length())
+                .thenComparing(Match::name)
+                .thenComparingInt(Match::position);
+
+        @Override
+        public int compareTo(Match other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private record Correction(String text, int distance) {
+    }
+
+    private static final class TrieNode {
+        private final Map<Character, TrieNode> children = new HashMap<>();
+        private final List<Match> top = new ArrayList<>();
+        /** Все совпадения узла последнего уровня, упорядоченные по ключу для выборки диапазона префикса. */
+        private final NavigableMap<String, Match> all = new TreeMap<>();
+
+        /**
+         * Добавляет совпадение в отсортированный список лучших, сохраняя не более {@link #MAX_LIMIT}
+         * и не более одного совпадения на блюдо.
+         */
+        void offerTop(Match match) {
+            if (top.size() == MAX_LIMIT && top.get(MAX_LIMIT - 1).compareTo(match) <= 0) {
+                return;
+            }
+            for (int i = 0; i < top.size(); i++) {
+                if (top.get(i).position == match.position) {
+                    if (top.get(i).compareTo(match) <= 0) {
+                        return;
+                    }
+                    top.remove(i);
+                    break;
+                }
+            }
+            int index = Collections.binarySearch(top, match);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            top.add(index, match);
+            if (top.size() > MAX_LIMIT) {
+                top.remove(MAX_LIMIT);
+            }
+        }
+    }
+
+    /**
+     * Счетчики по позициям слов в хэш-таблице с открытой адресацией.
+     * Размер таблицы пропорционален количеству подсчитываемых вхождений, а не размеру словаря.
+     */
+    private static final class PositionCounts {
+        private final int[] keys;
+        private final int[] counts;
+        private final int mask;
+
+        PositionCounts(int expected) {
+            // Заполнение таблицы не превышает половины
+            int capacity = Math.max(4, Integer.highestOneBit(Math.max(1, expected)) << 2);
+            keys = new int[capacity];
+            counts = new int[capacity];
+            mask = capacity - 1;
+        }
+
+        /**
+         * @return Счетчик позиции после увеличения.
+         */
+        int increment(int position) {
+            int key = position + 1;
+            int h = position * 0x9E3779B9;
+            int i = (h ^ (h >>> 16)) & mask;
+            while (keys[i] != 0) {
+                if (keys[i] == key) {
+                    return ++counts[i];
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            return counts[i] = 1;
+        }
+    }
+
+    /**
+     * Растущий массив int без упаковки для списков позиций индекса триграмм.
+     */
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
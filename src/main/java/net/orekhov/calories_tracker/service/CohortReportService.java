@@ -0,0 +1,54 @@
+package net.orekhov.calories_tracker.service;
+
+import net.orekhov.calories_tracker.analytics.CohortStatistics;
+import net.orekhov.calories_tracker.dto.CohortReport;
+import net.orekhov.calories_tracker.exception.BadRequestException;
+import net.orekhov.calories_tracker.repository.DailyCalorieSummaryRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * Сервис когортных отчетов по всем пользователям.
+ * <p>
+ * Отчеты строятся по {@link CohortStatistics} в памяти; база читается только при заполнении статистики.
+ * </p>
+ */
+@Service
+public class CohortReportService {
+    private final CohortStatistics cohortStatistics;
+    private final DailyCalorieSummaryRepository summaryRepository;
+
+    public CohortReportService(CohortStatistics cohortStatistics, DailyCalorieSummaryRepository summaryRepository) {
+        this.cohortStatistics = cohortStatistics;
+        this.summaryRepository = summaryRepository;
+    }
+
+    /**
+     * Возвращает отчет по когортам за день.
+     *
+     * @param day День, либо {@code null} для текущего дня по UTC.
+     * @return Отчет {@link CohortReport}.
+     * @throws BadRequestException если день раньше хранимого периода.
+     */
+    public CohortReport getReport(LocalDate day) {
+        LocalDate reportDay = day != null ? day : LocalDate.now(ZoneOffset.UTC);
+        LocalDate first = cohortStatistics.firstTrackedDay();
+        if (reportDay.isBefore(first)) {
+            throw new BadRequestException("Cohort statistics are available from " + first);
+        }
+        return cohortStatistics.report(reportDay);
+    }
+
+    /**
+     * Заново заполняет когортную статистику по дневным сводкам.
+     *
+     * @return Количество учтенных сводок.
+     */
+    @Transactional(readOnly = true)
+    public int rebuild() {
+        return cohortStatistics.rebuild(() -> summaryRepository.streamCohortRowsSince(cohortStatistics.firstTrackedDay()));
+    }
+}
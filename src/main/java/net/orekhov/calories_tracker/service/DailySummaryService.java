@@ -0,0 +1,142 @@
+package net.orekhov.calories_tracker.service;
+
+import net.orekhov.calories_tracker.analytics.CohortStatistics;
+import net.orekhov.calories_tracker.analytics.UserDayChange;
+import net.orekhov.calories_tracker.dto.DailyTotals;
+import net.orekhov.calories_tracker.entity.DailyCalorieSummary;
+import net.orekhov.calories_tracker.entity.DailyCalorieSummaryId;
+import net.orekhov.calories_tracker.entity.Meal;
+import net.orekhov.calories_tracker.entity.User;
+import net.orekhov.calories_tracker.repository.DailyCalorieSummaryRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Сервис для поддержки материализованных дневных сводок питания.
+ * <p>
+ * Значения сводок до и после изменения передаются в {@link CohortStatistics} после фиксации транзакции.
+ * </p>
+ */
+@Service
+public class DailySummaryService {
+    private final DailyCalorieSummaryRepository summaryRepository;
+    private final CohortStatistics cohortStatistics;
+
+    public DailySummaryService(DailyCalorieSummaryRepository summaryRepository, CohortStatistics cohortStatistics) {
+        this.summaryRepository = summaryRepository;
+        this.cohortStatistics = cohortStatistics;
+    }
+
+    /**
+     * Добавляет прием пищи в сводку за его день в часовом поясе пользователя.
+     * Должен вызываться в транзакции, сохраняющей прием пищи.
+     *
+     * @param meal Сохраненный прием пищи.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordMeal(Meal meal) {
+        DailyTotals totals = summaryRepository.addToSummary(meal.getUser().getId(), meal.getLocalDay(),
+                meal.getTotalCalories(), meal.getTotalProtein(), meal.getTotalFat(), meal.getTotalCarbs(), 1);
+        applyAfterCommit(List.of(change(meal.getUser(), meal.getLocalDay(), totals, meal.getTotalCalories(), 1)));
+    }
+
+    /**
+     * Добавляет пакет приемов пищи в сводки.
+     * Изменения предварительно группируются по пользователю и дню, поэтому выполняется
+     * по одному обновлению на каждую затронутую сводку, а не на каждый прием пищи.
+     *
+     * @param meals Сохраненные приемы пищи.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordMeals(List<Meal> meals) {
+        Map<DailyCalorieSummaryId, DailyCalorieSummary> deltas = new LinkedHashMap<>();
+        Map<Long, User> users = new HashMap<>();
+        for (Meal meal : meals) {
+            users.putIfAbsent(meal.getUser().getId(), meal.getUser());
+            DailyCalorieSummaryId key = new DailyCalorieSummaryId(meal.getUser().getId(), meal.getLocalDay());
+            DailyCalorieSummary delta = new DailyCalorieSummary(key.getUserId(), key.getDay(),
+                    meal.getTotalCalories(), meal.getTotalProtein(), meal.getTotalFat(), meal.getTotalCarbs(), 1);
+            deltas.merge(key, delta, (a, b) -> new DailyCalorieSummary(a.getUserId(), a.getDay(),
+                    a.getCalories() + b.getCalories(), a.getProtein() + b.getProtein(), a.getFat() + b.getFat(),
+                    a.getCarbs() + b.getCarbs(), a.getMealCount() + b.getMealCount()));
+        }
+        List<UserDayChange> changes = new ArrayList<>(deltas.size());
+        for (DailyCalorieSummary delta : deltas.values()) {
+            DailyTotals totals = summaryRepository.addToSummary(delta.getUserId(), delta.getDay(), delta.getCalories(),
+                    delta.getProtein(), delta.getFat(), delta.getCarbs(), delta.getMealCount());
+            changes.add(change(users.get(delta.getUserId()), delta.getDay(), totals, delta.getCalories(), delta.getMealCount()));
+        }
+        applyAfterCommit(changes);
+    }
+
+    /**
+     * Вычитает прием пищи из сводки за его день.
+     * Должен вызываться в транзакции, удаляющей прием пищи.
+     *
+     * @param meal Удаляемый прием пищи.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removeMeal(Meal meal) {
+        DailyTotals totals = summaryRepository.addToSummary(meal.getUser().getId(), meal.getLocalDay(),
+                -meal.getTotalCalories(), -meal.getTotalProtein(), -meal.getTotalFat(), -meal.getTotalCarbs(), -1);
+        applyAfterCommit(List.of(change(meal.getUser(), meal.getLocalDay(), totals, -meal.getTotalCalories(), -1)));
+    }
+
+    private static UserDayChange change(User user, LocalDate day, DailyTotals totals, long calorieDelta, int mealCountDelta) {
+        return new UserDayChange(user.getGoal(), user.getDailyCalories(), day,
+                totals.getCalories() - calorieDelta, totals.getMealCount() - mealCountDelta,
+                totals.getCalories(), totals.getMealCount());
+    }
+
+    /**
+     * Передает изменения в когортную статистику только после фиксации транзакции,
+     * чтобы откат не оставлял в ней лишних значений. Фиксация отмечается в статистике,
+     * чтобы ее заполнение не пропустило и не учло дважды изменения этой транзакции.
+     */
+    private void applyAfterCommit(List<UserDayChange> changes) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean committing;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                cohortStatistics.enterCommit();
+                committing = true;
+            }
+
+            @Override
+            public void afterCommit() {
+                cohortStatistics.apply(changes);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (committing) {
+                    committing = false;
+                    cohortStatistics.exitCommit();
+                }
+            }
+        });
+    }
+
+    /**
+     * Полностью пересчитывает дневные сводки по таблицам приемов пищи.
+     * Используется после массовой загрузки данных в обход {@link MealService}.
+     *
+     * @return Количество строк сводки после пересчета.
+     */
+    @Transactional
+    public int rebuild() {
+        summaryRepository.deleteAllSummaries();
+        return summaryRepository.insertSummariesFromMeals();
+    }
+}
@@ -1,14 +1,23 @@
 package net.orekhov.calories_tracker.service;
 
 import lombok.RequiredArgsConstructor;
+import net.orekhov.calories_tracker.cache.FoodCatalogCache;
 import net.orekhov.calories_tracker.entity.Food;
+import net.orekhov.calories_tracker.exception.BadRequestException;
 import net.orekhov.calories_tracker.exception.NotFoundException;
 import net.orekhov.calories_tracker.repository.FoodRepository;
+import net.orekhov.calories_tracker.search.FoodSearchIndex;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Сервис для управления блюдами.
@@ -17,6 +26,8 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class FoodService {
     private final FoodRepository foodRepository;
+    private final FoodCatalogCache foodCatalogCache;
+    private final FoodSearchIndex foodSearchIndex;
 
     /**
      * Получает список всех блюд.
@@ -30,14 +41,67 @@ public class FoodService {
     /**
      * Создает новое блюдо в системе.
      * Если блюдо с таким названием уже существует, возвращает существующее.
+     * Созданное блюдо попадает в кэш каталога и в поисковый индекс после фиксации транзакции.
      *
      * @param food Объект {@link Food} для сохранения.
      * @return Созданный или существующий объект {@link Food}.
      */
     @Transactional
     public Food createFood(Food food) {
-        return foodRepository.findFirstByNameIgnoreCase(food.getName())
-                .orElseGet(() -> foodRepository.save(food));
+        return foodCatalogCache.getByName(food.getName())
+                .orElseGet(() -> {
+                    Optional<Food> existing = foodRepository.findFirstByNameIgnoreCase(food.getName());
+                    if (existing.isPresent()) {
+                        foodCatalogCache.put(existing.get());
+                        return existing.get();
+                    }
+                    Food saved = foodRepository.save(food);
+                    publishAfterCommit(saved);
+                    return saved;
+                });
+    }
+
+    /**
+     * Добавляет блюдо в кэш каталога и поисковый индекс только после фиксации транзакции:
+     * INSERT выполняется при фиксации, и ее откат (например, из-за уникального названия)
+     * не должен оставлять в них несохраненное блюдо.
+     */
+    private void publishAfterCommit(Food food) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                foodCatalogCache.put(food);
+                foodSearchIndex.add(food);
+            }
+        });
+    }
+
+    /**
+     * Ищет блюда по началу названия или слова в названии с учетом опечаток.
+     *
+     * @param query Поисковый запрос.
+     * @param limit Максимальное количество результатов (от 1 до {@link FoodSearchIndex#MAX_LIMIT}).
+     * @return Отранжированный список блюд.
+     * @throws BadRequestException если запрос пустой или лимит вне допустимого диапазона.
+     */
+    public List<Food> searchFoods(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("Search query must not be blank");
+        }
+        if (limit < 1 || limit > FoodSearchIndex.MAX_LIMIT) {
+            throw new BadRequestException("Limit must be between 1 and " + FoodSearchIndex.MAX_LIMIT);
+        }
+        return foodSearchIndex.search(query, limit);
+    }
+
+    /**
+     * Перестраивает поисковый индекс по всему каталогу блюд.
+     *
+     * @return Количество проиндексированных блюд.
+     */
+    public int rebuildSearchIndex() {
+        foodSearchIndex.rebuild(foodRepository.findAll());
+        return foodSearchIndex.size();
     }
 
     /**
@@ -48,7 +112,45 @@ public class FoodService {
      * @throws NotFoundException если блюдо не найдено.
      */
     public Food getFoodByName(String name) {
-        return foodRepository.findFirstByNameIgnoreCase(name)
-                .orElseThrow(() -> new NotFoundException("Food with name '" + name + "' not found"));
+        return foodCatalogCache.getByName(name)
+                .orElseGet(() -> {
+                    Food food = foodRepository.findFirstByNameIgnoreCase(name)
+                            .orElseThrow(() -> new NotFoundException("Food with name '" + name + "' not found"));
+                    foodCatalogCache.put(food);
+                    return food;
+                });
+    }
+
+    /**
+     * Получает блюда по списку ID.
+     * Блюда, отсутствующие в кэше каталога, берутся из кэша второго уровня Hibernate, а оставшиеся
+     * загружаются одним запросом; все найденные блюда добавляются в кэш каталога.
+     *
+     * @param ids ID блюд (повторы игнорируются).
+     * @return Список найденных блюд без повторов; ненайденные ID пропускаются.
+     */
+    public List<Food> getFoodsByIds(Collection<Long> ids) {
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        List<Food> foods = new ArrayList<>(uniqueIds.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : uniqueIds) {
+            foodCatalogCache.getById(id).ifPresentOrElse(foods::add, () -> missingIds.add(id));
+        }
+        if (!missingIds.isEmpty()) {
+            for (Food food : foodRepository.findAllByIdCached(missingIds)) {
+                foodCatalogCache.put(food);
+                foods.add(food);
+            }
+        }
+        return foods;
+    }
+
+    /**
+     * Возвращает статистику кэша каталога блюд.
+     *
+     * @return Объект {@link FoodCatalogCache.Stats}.
+     */
+    public FoodCatalogCache.Stats getCacheStats() {
+        return foodCatalogCache.stats();
     }
 }
@@ -0,0 +1,191 @@
+package net.orekhov.calories_tracker.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.orekhov.calories_tracker.cache.UserDataVersions;
+import net.orekhov.calories_tracker.dto.DailyProgress;
+import net.orekhov.calories_tracker.event.MealChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Поток дневных итогов пользователя через Server-Sent Events.
+ * <p>
+ * Подписка — асинхронный ответ Spring MVC ({@link SseEmitter}): открытое соединение не занимает
+ * поток обработки запросов. После фиксации изменения приемов пищи ({@link MealChangedEvent}) итог
+ * пересчитывается одним запросом на пользователя, независимо от количества его подписок, и
+ * рассылается всем подпискам. Пересчет выполняется асинхронно и не задерживает запрос, изменивший данные.
+ * Итоги двух быстрых изменений могут быть пересчитаны в разном порядке, поэтому каждый итог помечается
+ * версией данных пользователя ({@link UserDataVersions}), прочитанной до запроса к базе, и подписка
+ * не получает итог с версией старше уже отправленного.
+ * Продолжительность подписки ограничена {@code spring.mvc.async.request-timeout}, после чего
+ * клиент {@code EventSource} переподключается.
+ * </p>
+ */
+@Service
+public class LiveReportService {
+    static final String EVENT_NAME = "daily-total";
+
+    private static final Logger log = LoggerFactory.getLogger(LiveReportService.class);
+
+    private final ReportService reportService;
+    private final UserDataVersions userDataVersions;
+    private final Map<Long, Set<Subscription>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+
+    public LiveReportService(ReportService reportService, UserDataVersions userDataVersions, MeterRegistry meterRegistry) {
+        this.reportService = reportService;
+        this.userDataVersions = userDataVersions;
+        Gauge.builder("reports.live.connections", connections, AtomicInteger::get)
+                .description("Open live report (SSE) connections")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Подписывает клиента на дневные итоги пользователя и сразу отправляет текущий итог.
+     *
+     * @param userId ID пользователя.
+     * @return Поток событий {@value #EVENT_NAME} с {@link DailyProgress}.
+     * @throws net.orekhov.calories_tracker.exception.NotFoundException если пользователь не найден.
+     */
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = createEmitter();
+        Subscription subscription = new Subscription(emitter);
+        // Подписка регистрируется до чтения итога, чтобы не пропустить изменение между ними
+        register(userId, subscription);
+        emitter.onCompletion(() -> unregister(userId, subscription));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unregister(userId, subscription));
+        try {
+            long version = userDataVersions.version(userId);
+            send(userId, subscription, version, reportService.getDailyProgress(userId));
+        } catch (RuntimeException e) {
+            unregister(userId, subscription);
+            throw e;
+        }
+        return emitter;
+    }
+
+    SseEmitter createEmitter() {
+        return new SseEmitter();
+    }
+
+    /**
+     * Рассылает новый итог подписчикам пользователя после фиксации изменения приемов пищи.
+     *
+     * @param event Событие изменения.
+     */
+    @Async
+    @TransactionalEventListener
+    public void onMealChanged(MealChangedEvent event) {
+        Set<Subscription> subscriptions = subscribers.get(event.getUserId());
+        if (subscriptions == null || subscriptions.isEmpty()) {
+            return;
+        }
+        // Версия читается до итога: итог содержит как минимум все изменения с этой версией
+        long version = userDataVersions.version(event.getUserId());
+        DailyProgress progress = reportService.getDailyProgress(event.getUserId());
+        for (Subscription subscription : subscriptions) {
+            send(event.getUserId(), subscription, version, progress);
+        }
+    }
+
+    /**
+     * Отправляет комментарий во все подписки раз в {@code calories-tracker.live.heartbeat-interval} мс,
+     * чтобы прокси не закрывали простаивающие соединения, а закрытые клиентом соединения освобождались.
+     */
+    @Scheduled(fixedDelayString = "${calories-tracker.live.heartbeat-interval:30000}")
+    public void heartbeat() {
+        subscribers.forEach((userId, subscriptions) -> {
+            for (Subscription subscription : subscriptions) {
+                try {
+                    subscription.emitter.send(SseEmitter.event().comment("ping"));
+                } catch (IOException | IllegalStateException e) {
+                    unregister(userId, subscription);
+                }
+            }
+        });
+    }
+
+    /**
+     * @param userId ID пользователя.
+     * @return Количество открытых подписок пользователя.
+     */
+    public int subscriptionCount(Long userId) {
+        Set<Subscription> subscriptions = subscribers.get(userId);
+        return subscriptions != null ? subscriptions.size() : 0;
+    }
+
+    private void send(Long userId, Subscription subscription, long version, DailyProgress progress) {
+        try {
+            if (!subscription.sendIfNotStale(version, progress)) {
+                log.debug("Dropped stale live report of user {} (version {})", userId, version);
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Live report subscriber of user {} disconnected", userId, e);
+            unregister(userId, subscription);
+        }
+    }
+
+    private void register(Long userId, Subscription subscription) {
+        subscribers.compute(userId, (id, subscriptions) -> {
+            Set<Subscription> set = subscriptions != null ? subscriptions : new CopyOnWriteArraySet<>();
+            set.add(subscription);
+            return set;
+        });
+        connections.incrementAndGet();
+    }
+
+    private void unregister(Long userId, Subscription subscription) {
+        subscribers.computeIfPresent(userId, (id, subscriptions) -> {
+            if (subscriptions.remove(subscription)) {
+                connections.decrementAndGet();
+            }
+            return subscriptions.isEmpty() ? null : subscriptions;
+        });
+    }
+
+    /**
+     * Подписка с версией последнего отправленного итога. Проверка версии и отправка выполняются
+     * под блокировкой ({@link ReentrantLock}, а не {@code synchronized}, чтобы не закреплять виртуальные потоки).
+     */
+    private static final class Subscription {
+        private final SseEmitter emitter;
+        private final ReentrantLock lock = new ReentrantLock();
+        private long sentVersion = Long.MIN_VALUE;
+
+        private Subscription(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * @return {@code false}, если уже отправлен итог с более новой версией.
+         */
+        boolean sendIfNotStale(long version, DailyProgress progress) throws IOException {
+            lock.lock();
+            try {
+                if (version < sentVersion) {
+                    return false;
+                }
+                emitter.send(SseEmitter.event().name(EVENT_NAME).data(progress));
+                sentVersion = version;
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package net.orekhov.calories_tracker.service;
+
+import net.orekhov.calories_tracker.dto.MealBatchResult;
+import net.orekhov.calories_tracker.dto.MealItemDto;
+import net.orekhov.calories_tracker.dto.MealRequestDto;
+import net.orekhov.calories_tracker.entity.Food;
+import net.orekhov.calories_tracker.entity.Meal;
+import net.orekhov.calories_tracker.entity.User;
+import net.orekhov.calories_tracker.exception.BadRequestException;
+import net.orekhov.calories_tracker.repository.MealRepository;
+import net.orekhov.calories_tracker.repository.UserRepository;
+import net.orekhov.calories_tracker.wal.MealLogEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Сервис пакетной загрузки приемов пищи (синхронизация офлайн-журналов мобильных клиентов
+ * и сохранение записей журнала упреждающей записи).
+ * <p>
+ * Пользователи и блюда всего пакета загружаются одним {@code IN}-запросом каждый,
+ * а приемы пищи сохраняются одной транзакцией с пакетными вставками.
+ * </p>
+ */
+@Service
+public class MealBatchService {
+    /**
+     * Максимальное количество приемов пищи в одном пакете.
+     */
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(MealBatchService.class);
+
+    private final MealService mealService;
+    private final FoodService foodService;
+    private final UserRepository userRepository;
+    private final MealRepository mealRepository;
+
+    public MealBatchService(MealService mealService, FoodService foodService, UserRepository userRepository,
+                            MealRepository mealRepository) {
+        this.mealService = mealService;
+        this.foodService = foodService;
+        this.userRepository = userRepository;
+        this.mealRepository = mealRepository;
+    }
+
+    /**
+     * Создает приемы пищи из пакета запросов.
+     * Некорректные элементы (нет пользователя или блюда) пропускаются и возвращаются со статусом
+     * {@link MealBatchResult.Status#FAILED}, остальные сохраняются.
+     *
+     * @param requests Запросы на создание приемов пищи.
+     * @return Результаты в порядке входного массива.
+     * @throws BadRequestException если пакет пуст или превышает {@link #MAX_BATCH_SIZE}.
+     */
+    @Transactional
+    public List<MealBatchResult> createMeals(List<MealRequestDto> requests) {
+        if (requests == null || requests.isEmpty() || requests.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("Batch must contain from 1 to " + MAX_BATCH_SIZE + " meals");
+        }
+
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> foodIds = new HashSet<>();
+        for (MealRequestDto request : requests) {
+            if (request != null && request.getUserId() != null) {
+                userIds.add(request.getUserId());
+                request.quantitiesByFoodId().keySet().stream().filter(Objects::nonNull).forEach(foodIds::add);
+            }
+        }
+        Map<Long, User> users = loadUsers(userIds);
+        Map<Long, Food> foods = loadFoods(foodIds);
+
+        MealBatchResult[] results = new MealBatchResult[requests.size()];
+        List<Meal> meals = new ArrayList<>();
+        List<Integer> mealIndexes = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            MealRequestDto request = requests.get(i);
+            String error = validate(request, users, foods);
+            if (error != null) {
+                results[i] = MealBatchResult.failed(i, error);
+                continue;
+            }
+            Meal meal = new Meal(users.get(request.getUserId()), null);
+            request.quantitiesByFoodId().forEach((foodId, quantity) -> meal.addItem(foods.get(foodId), quantity));
+            meals.add(meal);
+            mealIndexes.add(i);
+        }
+
+        if (!meals.isEmpty()) {
+            List<Meal> savedMeals = mealService.createMeals(meals);
+            for (int i = 0; i < savedMeals.size(); i++) {
+                int index = mealIndexes.get(i);
+                results[index] = MealBatchResult.created(index, savedMeals.get(i).getId());
+            }
+        }
+        return List.of(results);
+    }
+
+    /**
+     * Сохраняет приемы пищи, принятые через журнал упреждающей записи, одной транзакцией.
+     * <p>
+     * Записи, чей {@code request_id} уже есть в базе (повторное воспроизведение журнала после падения
+     * между сохранением и контрольной точкой), пропускаются. Записи, ссылающиеся на отсутствующего
+     * пользователя или блюдо, пропускаются с предупреждением: они были проверены при приеме запроса.
+     * </p>
+     *
+     * @param entries Записи журнала в порядке добавления.
+     * @return Количество созданных приемов пищи.
+     */
+    @Transactional
+    public int createLoggedMeals(List<MealLogEntry> entries) {
+        Map<UUID, MealLogEntry> pending = new LinkedHashMap<>();
+        for (MealLogEntry entry : entries) {
+            pending.putIfAbsent(entry.getRequestId(), entry);
+        }
+        mealRepository.findExistingRequestIds(pending.keySet()).forEach(pending::remove);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> foodIds = new HashSet<>();
+        for (MealLogEntry entry : pending.values()) {
+            userIds.add(entry.getUserId());
+            foodIds.addAll(entry.getQuantities().keySet());
+        }
+        Map<Long, User> users = loadUsers(userIds);
+        Map<Long, Food> foods = loadFoods(foodIds);
+
+        List<Meal> meals = new ArrayList<>(pending.size());
+        for (MealLogEntry entry : pending.values()) {
+            User user = users.get(entry.getUserId());
+            if (user == null || !foods.keySet().containsAll(entry.getQuantities().keySet())) {
+                log.warn("Skipping logged meal {}: user or food no longer exists", entry.getRequestId());
+                continue;
+            }
+            Meal meal = new Meal(user, entry.getDateTime());
+            meal.setRequestId(entry.getRequestId());
+            entry.getQuantities().forEach((foodId, quantity) -> meal.addItem(foods.get(foodId), quantity));
+            meals.add(meal);
+        }
+        if (!meals.isEmpty()) {
+            mealService.createMeals(meals);
+        }
+        return meals.size();
+    }
+
+    private Map<Long, User> loadUsers(Set<Long> userIds) {
+        return userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+    }
+
+    private Map<Long, Food> loadFoods(Set<Long> foodIds) {
+        Map<Long, Food> foods = new HashMap<>();
+        for (Food food : foodService.getFoodsByIds(foodIds)) {
+            foods.put(food.getId(), food);
+        }
+        return foods;
+    }
+
+    private static String validate(MealRequestDto request, Map<Long, User> users, Map<Long, Food> foods) {
+        if (request == null || request.getUserId() == null) {
+            return "User ID cannot be null";
+        }
+        if (!request.isNotEmpty()) {
+            return "Food IDs cannot be empty";
+        }
+        if (request.getItems() != null) {
+            for (MealItemDto item : request.getItems()) {
+                if (item == null || item.getFoodId() == null) {
+                    return "Food ID cannot be null";
+                }
+                if (!(item.getQuantity() > 0)) {
+                    return "Quantity must be positive";
+                }
+            }
+        }
+        if (!users.containsKey(request.getUserId())) {
+            return "User with id " + request.getUserId() + " not found";
+        }
+        for (Long foodId : request.quantitiesByFoodId().keySet()) {
+            if (!foods.containsKey(foodId)) {
+                return "Food with id " + foodId + " not found";
+            }
+        }
+        return null;
+    }
+}
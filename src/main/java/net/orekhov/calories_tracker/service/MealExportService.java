@@ -0,0 +1,147 @@
+package net.orekhov.calories_tracker.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.orekhov.calories_tracker.datasource.ReplicaReads;
+import net.orekhov.calories_tracker.dto.MealExportFormat;
+import net.orekhov.calories_tracker.dto.MealExportRow;
+import net.orekhov.calories_tracker.dto.MealView;
+import net.orekhov.calories_tracker.repository.MealRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Сервис потоковой выгрузки полной истории приемов пищи пользователя в NDJSON или CSV.
+ * <p>
+ * Строки читаются из базы курсором и сразу записываются в выходной поток, в памяти
+ * находится только текущий прием пищи.
+ * </p>
+ */
+@Service
+public class MealExportService {
+    static final String CSV_HEADER =
+            "meal_id,date_time,food_ids,food_names,food_quantities,total_calories,total_protein,total_fat,total_carbs";
+
+    private final MealRepository mealRepository;
+    private final ObjectMapper objectMapper;
+    private final ReplicaReads replicaReads;
+
+    public MealExportService(MealRepository mealRepository, ObjectMapper objectMapper, ReplicaReads replicaReads) {
+        this.mealRepository = mealRepository;
+        this.objectMapper = objectMapper;
+        this.replicaReads = replicaReads;
+    }
+
+    /**
+     * Записывает историю приемов пищи пользователя в выходной поток.
+     *
+     * @param userId ID пользователя.
+     * @param format Формат выгрузки.
+     * @param out    Выходной поток (не закрывается).
+     * @throws IOException при ошибке записи.
+     */
+    @Transactional(readOnly = true)
+    public void exportMealHistory(Long userId, MealExportFormat format, OutputStream out) throws IOException {
+        replicaReads.allowFor(userId);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == MealExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        try (Stream<MealExportRow> rows = mealRepository.streamExportRows(userId)) {
+            Iterator<MealExportRow> iterator = rows.iterator();
+            MealAccumulator current = null;
+            while (iterator.hasNext()) {
+                MealExportRow row = iterator.next();
+                if (current != null && !current.mealId.equals(row.getMealId())) {
+                    write(current.toView(), format, writer);
+                    current = null;
+                }
+                if (current == null) {
+                    current = new MealAccumulator(row.getMealId(), row.getDateTime(), userId);
+                }
+                current.add(row);
+            }
+            if (current != null) {
+                write(current.toView(), format, writer);
+            }
+        }
+        writer.flush();
+    }
+
+    private void write(MealView meal, MealExportFormat format, Writer writer) throws IOException {
+        if (format == MealExportFormat.NDJSON) {
+            writer.write(objectMapper.writeValueAsString(meal));
+        } else {
+            writer.write(toCsvLine(meal));
+        }
+        writer.write('\n');
+    }
+
+    static String toCsvLine(MealView meal) {
+        String foodIds = meal.getFoods().stream()
+                .map(food -> String.valueOf(food.getId()))
+                .collect(Collectors.joining(";"));
+        String foodNames = meal.getFoods().stream()
+                .map(MealView.FoodRef::getName)
+                .collect(Collectors.joining(";"));
+        String foodQuantities = meal.getFoods().stream()
+                .map(food -> String.valueOf(food.getQuantity()))
+                .collect(Collectors.joining(";"));
+        return meal.getId() + "," + meal.getDateTime() + "," + foodIds + "," + csvEscape(foodNames) + ","
+                + foodQuantities + ","
+                + meal.getTotalCalories() + "," + meal.getTotalProtein() + ","
+                + meal.getTotalFat() + "," + meal.getTotalCarbs();
+    }
+
+    private static String csvEscape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Собирает строки одного приема пищи в {@link MealView}.
+     */
+    private static class MealAccumulator {
+        private final Long mealId;
+        private final LocalDateTime dateTime;
+        private final Long userId;
+        private final List<MealView.FoodRef> foods = new ArrayList<>();
+        private int calories;
+        private double protein;
+        private double fat;
+        private double carbs;
+
+        MealAccumulator(Long mealId, LocalDateTime dateTime, Long userId) {
+            this.mealId = mealId;
+            this.dateTime = dateTime;
+            this.userId = userId;
+        }
+
+        void add(MealExportRow row) {
+            foods.add(new MealView.FoodRef(row.getFoodId(), row.getFoodName(), row.getQuantity()));
+            calories = row.getTotalCalories();
+            protein = row.getTotalProtein();
+            fat = row.getTotalFat();
+            carbs = row.getTotalCarbs();
+        }
+
+        MealView toView() {
+            return new MealView(mealId, dateTime, userId, foods, calories, protein, fat, carbs);
+        }
+    }
+}
@@ -1,8 +1,19 @@
 package net.orekhov.calories_tracker.service;
 
+import net.orekhov.calories_tracker.cache.UserDataVersions;
+import net.orekhov.calories_tracker.dto.MealCursor;
+import net.orekhov.calories_tracker.dto.MealPage;
+import net.orekhov.calories_tracker.dto.MealView;
+import net.orekhov.calories_tracker.dto.NormalizedMealPage;
 import net.orekhov.calories_tracker.entity.Meal;
+import net.orekhov.calories_tracker.entity.User;
+import net.orekhov.calories_tracker.event.MealChangedEvent;
+import net.orekhov.calories_tracker.exception.BadRequestException;
 import net.orekhov.calories_tracker.exception.NotFoundException;
 import net.orekhov.calories_tracker.repository.MealRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,15 +24,58 @@ import java.util.List;
  */
 @Service
 public class MealService {
+    /**
+     * Максимальный размер страницы истории приемов пищи.
+     */
+    public static final int MAX_PAGE_SIZE = 500;
+
     private final MealRepository mealRepository;
+    private final DailySummaryService dailySummaryService;
+    private final UserDataVersions userDataVersions;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public MealService(MealRepository mealRepository) {
+    public MealService(MealRepository mealRepository, DailySummaryService dailySummaryService,
+                       UserDataVersions userDataVersions, ApplicationEventPublisher eventPublisher) {
         this.mealRepository = mealRepository;
+        this.dailySummaryService = dailySummaryService;
+        this.userDataVersions = userDataVersions;
+        this.eventPublisher = eventPublisher;
     }
 
+    /**
+     * Сохраняет прием пищи со снимком пищевой ценности и в той же транзакции обновляет дневную сводку пользователя.
+     * После фиксации увеличивает версию данных пользователя ({@link UserDataVersions}) и уведомляет
+     * слушателей {@link MealChangedEvent}.
+     *
+     * @param meal Новый прием пищи.
+     * @return Сохраненный прием пищи.
+     */
     @Transactional
     public Meal createMeal(Meal meal) {
-        return mealRepository.save(meal);
+        meal.calculateTotals();
+        Meal savedMeal = mealRepository.save(meal);
+        dailySummaryService.recordMeal(savedMeal);
+        mealChanged(savedMeal.getUser().getId());
+        return savedMeal;
+    }
+
+    /**
+     * Сохраняет пакет приемов пищи со снимками пищевой ценности одной транзакцией и обновляет дневные сводки.
+     * При включенном {@code hibernate.jdbc.batch_size} вставки объединяются в JDBC-пакеты.
+     *
+     * @param meals Новые приемы пищи.
+     * @return Сохраненные приемы пищи в том же порядке.
+     */
+    @Transactional
+    public List<Meal> createMeals(List<Meal> meals) {
+        meals.forEach(Meal::calculateTotals);
+        List<Meal> savedMeals = mealRepository.saveAll(meals);
+        dailySummaryService.recordMeals(savedMeals);
+        savedMeals.stream()
+                .map(meal -> meal.getUser().getId())
+                .distinct()
+                .forEach(this::mealChanged);
+        return savedMeals;
     }
 
     public Meal getMealById(Long id) {
@@ -29,15 +83,93 @@ public class MealService {
                 .orElseThrow(() -> new NotFoundException("Meal with id " + id + " not found"));
     }
 
-    public List<Meal> getUserMeals(Long userId) {
-        return mealRepository.findByUser_IdOrderByDateTimeDesc(userId);
+    /**
+     * Получает страницу приемов пищи пользователя, отсортированных по {@code (date_time, id)} по убыванию.
+     * <p>
+     * Используется keyset-пагинация: сначала выбираются ID страницы по индексу, затем одним запросом
+     * загружаются сами приемы пищи с блюдами. Стоимость запроса не зависит от глубины страницы.
+     * </p>
+     *
+     * @param userId ID пользователя.
+     * @param before Курсор из поля {@code next} предыдущей страницы, либо {@code null} для первой страницы.
+     * @param limit  Размер страницы (от 1 до {@link #MAX_PAGE_SIZE}).
+     * @return Страница {@link MealPage}.
+     * @throws BadRequestException если курсор или размер страницы некорректны.
+     */
+    @Transactional(readOnly = true)
+    public MealPage getUserMeals(Long userId, String before, int limit) {
+        MealSlice slice = findUserMeals(userId, before, limit);
+        return new MealPage(slice.meals().stream().map(MealView::from).toList(), slice.next());
+    }
+
+    /**
+     * Получает страницу приемов пищи пользователя так же, как {@link #getUserMeals(Long, String, int)},
+     * в виде сущностей с загруженными блюдами для нормализованного ответа.
+     *
+     * @param user   Пользователь.
+     * @param before Курсор из поля {@code next} предыдущей страницы, либо {@code null} для первой страницы.
+     * @param limit  Размер страницы (от 1 до {@link #MAX_PAGE_SIZE}).
+     * @return Страница {@link NormalizedMealPage}.
+     * @throws BadRequestException если курсор или размер страницы некорректны.
+     */
+    @Transactional(readOnly = true)
+    public NormalizedMealPage getUserMealsNormalized(User user, String before, int limit) {
+        MealSlice slice = findUserMeals(user.getId(), before, limit);
+        return new NormalizedMealPage(user, slice.meals(), slice.next());
     }
 
+    private MealSlice findUserMeals(Long userId, String before, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        // Запрашиваем на одну строку больше, чтобы понять, есть ли следующая страница
+        Pageable pageable = PageRequest.ofSize(limit + 1);
+        List<Long> ids;
+        if (before == null) {
+            ids = mealRepository.findPageIds(userId, pageable);
+        } else {
+            MealCursor cursor = MealCursor.decode(before);
+            ids = mealRepository.findPageIdsBefore(userId, cursor.getDateTime(), cursor.getId(), pageable);
+        }
+
+        boolean hasNext = ids.size() > limit;
+        if (hasNext) {
+            ids = ids.subList(0, limit);
+        }
+        if (ids.isEmpty()) {
+            return new MealSlice(List.of(), null);
+        }
+
+        List<Meal> meals = mealRepository.findAllWithFoodsByIdIn(ids);
+        String next = null;
+        if (hasNext) {
+            Meal last = meals.get(meals.size() - 1);
+            next = new MealCursor(last.getDateTime(), last.getId()).encode();
+        }
+        return new MealSlice(meals, next);
+    }
+
+    private record MealSlice(List<Meal> meals, String next) {
+    }
+
+    /**
+     * Удаляет прием пищи и в той же транзакции вычитает его снимок из дневной сводки пользователя.
+     * После фиксации увеличивает версию данных пользователя и уведомляет слушателей {@link MealChangedEvent}.
+     *
+     * @param id ID приема пищи.
+     * @throws NotFoundException если прием пищи не найден.
+     */
     @Transactional
     public void deleteMealById(Long id) {
-        if (!mealRepository.existsById(id)) {
-            throw new NotFoundException("Meal with id " + id + " not found");
-        }
-        mealRepository.deleteById(id);
+        Meal meal = mealRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Meal with id " + id + " not found"));
+        dailySummaryService.removeMeal(meal);
+        mealRepository.delete(meal);
+        mealChanged(meal.getUser().getId());
+    }
+
+    private void mealChanged(Long userId) {
+        userDataVersions.bumpAfterCommit(userId);
+        eventPublisher.publishEvent(new MealChangedEvent(userId));
     }
 }
@@ -1,42 +1,50 @@
 package net.orekhov.calories_tracker.service;
 
 import lombok.RequiredArgsConstructor;
-import net.orekhov.calories_tracker.entity.Meal;
+import net.orekhov.calories_tracker.datasource.ReplicaReads;
+import net.orekhov.calories_tracker.dto.DailyProgress;
+import net.orekhov.calories_tracker.dto.MealPage;
+import net.orekhov.calories_tracker.dto.NormalizedMealPage;
+import net.orekhov.calories_tracker.dto.NutritionBucket;
+import net.orekhov.calories_tracker.dto.ReportGranularity;
+import net.orekhov.calories_tracker.entity.DailyCalorieSummaryId;
 import net.orekhov.calories_tracker.entity.User;
+import net.orekhov.calories_tracker.exception.BadRequestException;
 import net.orekhov.calories_tracker.exception.NotFoundException;
-import net.orekhov.calories_tracker.repository.MealRepository;
+import net.orekhov.calories_tracker.repository.DailyCalorieSummaryRepository;
 import net.orekhov.calories_tracker.repository.UserRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.List;
 
 /**
  * Сервис для генерации отчетов по питанию пользователей.
+ * <p>
+ * Отчеты читаются с реплики, если она настроена и данные пользователя не менялись недавно (см. {@link ReplicaReads}).
+ * </p>
  */
 @Service
 @RequiredArgsConstructor
 public class ReportService {
-    private final MealRepository mealRepository;
+    private final MealService mealService;
     private final UserRepository userRepository;
+    private final DailyCalorieSummaryRepository summaryRepository;
+    private final ReplicaReads replicaReads;
 
     /**
-     * Вычисляет суммарное количество потребленных пользователем калорий за текущий день.
+     * Возвращает суммарное количество потребленных пользователем калорий за текущий день
+     * в его часовом поясе. Значение читается из дневной сводки по первичному ключу {@code (user_id, day)}.
      *
      * @param userId ID пользователя.
      * @return Общее количество калорий за день.
+     * @throws NotFoundException если пользователь не найден.
      */
     @Transactional(readOnly = true)
     public int getDailyCalories(Long userId) {
-        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
-        LocalDateTime endOfDay = LocalDate.now().atTime(LocalTime.MAX);
-
-        List<Meal> meals = mealRepository.findMealsForUserToday(userId, startOfDay, endOfDay);
-
-        return meals.stream().mapToInt(Meal::getTotalCalories).sum();
+        replicaReads.allowFor(userId);
+        return getDailyCalories(findUser(userId));
     }
 
     /**
@@ -48,24 +56,97 @@ public class ReportService {
      */
     @Transactional(readOnly = true)
     public boolean isWithinDailyLimit(Long userId) {
-        User user = userRepository.findById(userId)
+        replicaReads.allowFor(userId);
+        User user = findUser(userId);
+        return getDailyCalories(user) <= user.getDailyCalories();
+    }
+
+    /**
+     * Возвращает калории пользователя за текущий день в его часовом поясе вместе с дневной нормой.
+     *
+     * @param userId ID пользователя.
+     * @return Итог дня {@link DailyProgress}.
+     * @throws NotFoundException если пользователь не найден.
+     */
+    @Transactional(readOnly = true)
+    public DailyProgress getDailyProgress(Long userId) {
+        replicaReads.allowFor(userId);
+        User user = findUser(userId);
+        return new DailyProgress(LocalDate.now(user.getZoneId()), getDailyCalories(user), user.getDailyCalories());
+    }
+
+    private int getDailyCalories(User user) {
+        LocalDate today = LocalDate.now(user.getZoneId());
+        return summaryRepository.findById(new DailyCalorieSummaryId(user.getId(), today))
+                .map(summary -> (int) summary.getCalories())
+                .orElse(0);
+    }
+
+    private User findUser(Long userId) {
+        return userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("User with id " + userId + " not found"));
-        return getDailyCalories(userId) <= user.getDailyCalories();
     }
 
     /**
-     * Получает историю приемов пищи пользователя, отсортированную по дате убывания.
+     * Получает страницу истории приемов пищи пользователя, отсортированную по дате убывания.
      *
      * @param userId ID пользователя.
-     * @return Список приемов пищи.
+     * @param before Курсор следующей страницы, либо {@code null} для первой страницы.
+     * @param limit  Размер страницы.
+     * @return Страница приемов пищи {@link MealPage}.
      * @throws NotFoundException если у пользователя нет приемов пищи.
      */
     @Transactional(readOnly = true)
-    public List<Meal> getMealHistory(Long userId) {
-        List<Meal> meals = mealRepository.findByUser_IdOrderByDateTimeDesc(userId);
-        if (meals.isEmpty()) {
+    public MealPage getMealHistory(Long userId, String before, int limit) {
+        replicaReads.allowFor(userId);
+        MealPage page = mealService.getUserMeals(userId, before, limit);
+        if (before == null && page.getItems().isEmpty()) {
+            throw new NotFoundException("No meals found for user with id " + userId);
+        }
+        return page;
+    }
+
+    /**
+     * Получает страницу истории приемов пищи пользователя в нормализованном виде: пользователь и блюда
+     * записываются один раз, приемы пищи ссылаются на блюда по ID.
+     *
+     * @param userId ID пользователя.
+     * @param before Курсор следующей страницы, либо {@code null} для первой страницы.
+     * @param limit  Размер страницы.
+     * @return Страница приемов пищи {@link NormalizedMealPage}.
+     * @throws NotFoundException если пользователь не найден или у него нет приемов пищи.
+     */
+    @Transactional(readOnly = true)
+    public NormalizedMealPage getNormalizedMealHistory(Long userId, String before, int limit) {
+        replicaReads.allowFor(userId);
+        NormalizedMealPage page = mealService.getUserMealsNormalized(findUser(userId), before, limit);
+        if (before == null && page.getMeals().isEmpty()) {
             throw new NotFoundException("No meals found for user with id " + userId);
         }
-        return meals;
+        return page;
+    }
+
+    /**
+     * Возвращает калории и макронутриенты пользователя за период с группировкой по дням, неделям или месяцам.
+     * Агрегация выполняется в базе данных одним запросом по дневным сводкам.
+     *
+     * @param userId      ID пользователя.
+     * @param from        Первый день периода (включительно).
+     * @param to          Последний день периода (включительно).
+     * @param granularity Шаг группировки.
+     * @return Интервалы с приемами пищи в порядке возрастания даты.
+     * @throws BadRequestException если начало периода позже конца.
+     * @throws NotFoundException   если пользователь не найден.
+     */
+    @Transactional(readOnly = true)
+    public List<NutritionBucket> getNutritionReport(Long userId, LocalDate from, LocalDate to, ReportGranularity granularity) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("Parameter 'from' must not be after 'to'");
+        }
+        replicaReads.allowFor(userId);
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("User with id " + userId + " not found");
+        }
+        return summaryRepository.sumByPeriod(userId, granularity.getTruncUnit(), from, to);
     }
 }
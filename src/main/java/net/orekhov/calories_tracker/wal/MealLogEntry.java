@@ -0,0 +1,51 @@
+package net.orekhov.calories_tracker.wal;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Запись журнала упреждающей записи: принятый, но еще не сохраненный в базе прием пищи.
+ */
+public class MealLogEntry {
+    private final UUID requestId;
+    private final Long userId;
+    private final LocalDateTime dateTime;
+    private final Map<Long, Double> quantities;
+
+    /**
+     * @param requestId  ID запроса, возвращенный клиенту.
+     * @param userId     ID пользователя.
+     * @param dateTime   Время приема пищи (момент приема запроса).
+     * @param quantities ID блюда → количество порций.
+     */
+    @JsonCreator
+    public MealLogEntry(@JsonProperty("requestId") UUID requestId,
+                        @JsonProperty("userId") Long userId,
+                        @JsonProperty("dateTime") LocalDateTime dateTime,
+                        @JsonProperty("quantities") Map<Long, Double> quantities) {
+        this.requestId = requestId;
+        this.userId = userId;
+        this.dateTime = dateTime;
+        this.quantities = quantities;
+    }
+
+    public UUID getRequestId() {
+        return requestId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public LocalDateTime getDateTime() {
+        return dateTime;
+    }
+
+    public Map<Long, Double> getQuantities() {
+        return quantities;
+    }
+}
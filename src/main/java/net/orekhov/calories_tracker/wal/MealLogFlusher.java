@@ -0,0 +1,90 @@
+package net.orekhov.calories_tracker.wal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.orekhov.calories_tracker.service.MealBatchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Фоновый перенос приемов пищи из {@link MealWriteAheadLog} в базу данных.
+ * <p>
+ * Записи сохраняются пачками по {@code calories-tracker.meal-log.batch-size} через
+ * {@link MealBatchService#createLoggedMeals}, после каждой пачки сдвигается контрольная точка журнала.
+ * Если база недоступна, контрольная точка не сдвигается и пачка повторяется при следующем запуске.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "calories-tracker.meal-log", name = "enabled", havingValue = "true")
+public class MealLogFlusher {
+    private static final Logger log = LoggerFactory.getLogger(MealLogFlusher.class);
+
+    private final MealWriteAheadLog mealLog;
+    private final MealBatchService mealBatchService;
+    private final int batchSize;
+    private final Counter flushedMeals;
+
+    /**
+     * Воспроизведение при запуске и периодический перенос не должны читать одну пачку дважды.
+     */
+    private final ReentrantLock drainLock = new ReentrantLock();
+
+    public MealLogFlusher(MealWriteAheadLog mealLog, MealBatchService mealBatchService, MeterRegistry meterRegistry,
+                          @Value("${calories-tracker.meal-log.batch-size:500}") int batchSize) {
+        if (batchSize < 1 || batchSize > MealBatchService.MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Meal log batch size must be from 1 to " + MealBatchService.MAX_BATCH_SIZE);
+        }
+        this.mealLog = mealLog;
+        this.mealBatchService = mealBatchService;
+        this.batchSize = batchSize;
+        this.flushedMeals = Counter.builder("meal.log.flushed")
+                .description("Meals moved from the write-ahead log to the database")
+                .register(meterRegistry);
+        Gauge.builder("meal.log.backlog", mealLog, MealWriteAheadLog::backlogBytes)
+                .baseUnit("bytes")
+                .description("Acknowledged meals not yet stored in the database")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${calories-tracker.meal-log.flush-interval:500}")
+    public void flush() {
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            log.warn("Meal log flush failed, will retry", e);
+        }
+    }
+
+    /**
+     * Переносит в базу все подтвержденные записи журнала.
+     *
+     * @return Количество созданных приемов пищи.
+     */
+    public int drain() {
+        drainLock.lock();
+        try {
+            int created = 0;
+            while (true) {
+                MealWriteAheadLog.Batch batch = mealLog.readPending(batchSize);
+                if (batch.entries().isEmpty()) {
+                    break;
+                }
+                int saved = mealBatchService.createLoggedMeals(batch.entries());
+                mealLog.checkpoint(batch.end());
+                flushedMeals.increment(saved);
+                created += saved;
+            }
+            mealLog.compactIfDrained();
+            return created;
+        } finally {
+            drainLock.unlock();
+        }
+    }
+}
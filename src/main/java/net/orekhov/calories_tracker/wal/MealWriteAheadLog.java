@@ -0,0 +1,390 @@
+package net.orekhov.calories_tracker.wal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Локальный журнал упреждающей записи (WAL) для асинхронного создания приемов пищи.
+ * <p>
+ * Каждая запись — строка {@code <crc32c> <json>\n} в файле {@code meals.log}. Метод {@link #append}
+ * возвращает управление только после {@code fsync}, поэтому подтвержденный клиенту прием пищи переживает
+ * падение процесса и сервера. Одновременные записи разделяют один {@code fsync} (group commit).
+ * </p>
+ * <p>
+ * Файл {@code meals.checkpoint} хранит смещение, до которого записи уже сохранены в базе.
+ * После перезапуска записи читаются начиная с него; неполная последняя строка (запись, прерванная
+ * падением до подтверждения) отбрасывается. Когда все записи сохранены, журнал усекается.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "calories-tracker.meal-log", name = "enabled", havingValue = "true")
+public class MealWriteAheadLog {
+    static final String LOG_FILE = "meals.log";
+    static final String CHECKPOINT_FILE = "meals.checkpoint";
+
+    private static final Logger log = LoggerFactory.getLogger(MealWriteAheadLog.class);
+    private static final int CRC_LENGTH = 8;
+    private static final int READ_CHUNK = 64 * 1024;
+
+    private final ObjectMapper objectMapper;
+    /**
+     * Размер журнала, после которого полностью сохраненный журнал усекается.
+     */
+    private final long compactThreshold;
+    private final Path checkpointFile;
+    private final FileChannel channel;
+
+    /**
+     * Записи дописываются под этой блокировкой; {@code fsync} выполняется под {@link #syncLock},
+     * чтобы новые записи не ждали чужой синхронизации с диском.
+     */
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private volatile long writePosition;
+    private volatile long syncedPosition;
+    private volatile long checkpoint;
+
+    public MealWriteAheadLog(@Value("${calories-tracker.meal-log.dir:data/meal-log}") String directory,
+                             @Value("${calories-tracker.meal-log.compact-threshold:16MB}") DataSize compactThreshold,
+                             ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.compactThreshold = compactThreshold.toBytes();
+        try {
+            Path dir = Files.createDirectories(Path.of(directory));
+            Path logFile = dir.resolve(LOG_FILE);
+            boolean created = Files.notExists(logFile);
+            this.checkpointFile = dir.resolve(CHECKPOINT_FILE);
+            this.channel = FileChannel.open(logFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (created) {
+                syncDirectory(dir);
+            }
+            this.checkpoint = Math.min(readCheckpoint(), channel.size());
+            this.writePosition = recover();
+            this.syncedPosition = writePosition;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open meal log in " + directory, e);
+        }
+        log.info("Meal log opened: {} bytes pending", backlogBytes());
+    }
+
+    /**
+     * Дописывает запись и синхронизирует журнал с диском.
+     *
+     * @param entry Запись.
+     * @throws UncheckedIOException если запись не удалось сохранить; в этом случае запрос нельзя подтверждать.
+     */
+    public void append(MealLogEntry entry) {
+        ByteBuffer record = ByteBuffer.wrap(encode(entry));
+        long end;
+        appendLock.lock();
+        try {
+            long position = writePosition;
+            while (record.hasRemaining()) {
+                position += channel.write(record, position);
+            }
+            writePosition = position;
+            end = position;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to meal log", e);
+        } finally {
+            appendLock.unlock();
+        }
+        sync(end);
+    }
+
+    private void sync(long end) {
+        syncLock.lock();
+        try {
+            if (syncedPosition >= end) {
+                // Запись уже синхронизирована вместе с чужой
+                return;
+            }
+            long target = writePosition;
+            channel.force(false);
+            syncedPosition = target;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot sync meal log", e);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Читает подтвержденные записи, еще не сохраненные в базе, начиная с текущей контрольной точки.
+     *
+     * @param maxEntries Максимальное количество записей.
+     * @return Пачка записей и смещение ее конца для {@link #checkpoint(long)}.
+     */
+    public Batch readPending(int maxEntries) {
+        long from = checkpoint;
+        long limit = syncedPosition;
+        List<MealLogEntry> entries = new ArrayList<>();
+        try {
+            long position = from;
+            while (entries.size() < maxEntries && position < limit) {
+                ByteBuffer chunk = ByteBuffer.allocate((int) Math.min(READ_CHUNK, limit - position));
+                readFully(chunk, position);
+                int consumed = parse(chunk.array(), chunk.limit(), maxEntries, entries);
+                if (consumed == 0) {
+                    // Запись длиннее блока чтения
+                    int length = recordLength(position, limit);
+                    ByteBuffer record = ByteBuffer.allocate(length);
+                    readFully(record, position);
+                    consumed = parse(record.array(), length, maxEntries, entries);
+                }
+                position += consumed;
+            }
+            return new Batch(entries, position);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read meal log", e);
+        }
+    }
+
+    /**
+     * Фиксирует, что записи до указанного смещения сохранены в базе.
+     * Контрольная точка заменяется атомарно, поэтому после падения она указывает либо на старое, либо на новое смещение.
+     *
+     * @param position Смещение конца сохраненных записей ({@link Batch#end()}).
+     */
+    public void checkpoint(long position) {
+        try {
+            writeCheckpoint(position);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write meal log checkpoint", e);
+        }
+        checkpoint = position;
+    }
+
+    /**
+     * Усекает журнал, если все записи сохранены в базе и размер превысил {@code calories-tracker.meal-log.compact-threshold}.
+     *
+     * @return {@code true}, если журнал усечен.
+     */
+    public boolean compactIfDrained() {
+        if (writePosition < compactThreshold) {
+            return false;
+        }
+        appendLock.lock();
+        syncLock.lock();
+        try {
+            if (checkpoint != writePosition) {
+                return false;
+            }
+            // Сначала усекаем журнал: если процесс упадет до записи контрольной точки,
+            // при открытии она окажется за концом файла и будет сброшена в 0
+            channel.truncate(0);
+            channel.force(true);
+            writeCheckpoint(0);
+            writePosition = 0;
+            syncedPosition = 0;
+            checkpoint = 0;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot compact meal log", e);
+        } finally {
+            syncLock.unlock();
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * @return Объем подтвержденных записей, еще не сохраненных в базе, в байтах.
+     */
+    public long backlogBytes() {
+        return syncedPosition - checkpoint;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Проверяет записи после контрольной точки и отбрасывает неполный хвост.
+     *
+     * @return Смещение конца последней целой записи.
+     * @throws IllegalStateException если поврежденная запись находится не в конце журнала.
+     */
+    private long recover() throws IOException {
+        long size = channel.size();
+        long position = checkpoint;
+        List<MealLogEntry> ignored = new ArrayList<>();
+        while (position < size) {
+            int length;
+            try {
+                length = recordLength(position, size);
+            } catch (IllegalStateException e) {
+                // Строка без перевода строки: запись прервана падением до подтверждения
+                break;
+            }
+            ByteBuffer record = ByteBuffer.allocate(length);
+            readFully(record, position);
+            try {
+                parse(record.array(), length, 1, ignored);
+            } catch (IOException e) {
+                if (position + length < size) {
+                    throw new IllegalStateException("Meal log is corrupted at offset " + position, e);
+                }
+                break;
+            }
+            ignored.clear();
+            position += length;
+        }
+        if (position < size) {
+            log.warn("Discarding {} bytes of incomplete meal log record", size - position);
+            channel.truncate(position);
+            channel.force(true);
+        }
+        return position;
+    }
+
+    /**
+     * Разбирает целые записи из буфера.
+     *
+     * @return Количество байт, занятых разобранными записями.
+     */
+    private int parse(byte[] data, int length, int maxEntries, List<MealLogEntry> entries) throws IOException {
+        int offset = 0;
+        while (entries.size() < maxEntries) {
+            int newline = indexOf(data, offset, length, (byte) '\n');
+            if (newline < 0) {
+                break;
+            }
+            entries.add(decode(data, offset, newline - offset));
+            offset = newline + 1;
+        }
+        return offset;
+    }
+
+    private byte[] encode(MealLogEntry entry) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(entry);
+            CRC32C crc = new CRC32C();
+            crc.update(json);
+            byte[] prefix = (HexFormat.of().toHexDigits((int) crc.getValue()) + ' ').getBytes(StandardCharsets.US_ASCII);
+            byte[] record = new byte[prefix.length + json.length + 1];
+            System.arraycopy(prefix, 0, record, 0, prefix.length);
+            System.arraycopy(json, 0, record, prefix.length, json.length);
+            record[record.length - 1] = '\n';
+            return record;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot serialize meal log entry", e);
+        }
+    }
+
+    private MealLogEntry decode(byte[] data, int offset, int length) throws IOException {
+        if (length <= CRC_LENGTH + 1 || data[offset + CRC_LENGTH] != ' ') {
+            throw new IOException("Malformed meal log record");
+        }
+        int expected;
+        try {
+            expected = HexFormat.fromHexDigits(new String(data, offset, CRC_LENGTH, StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Malformed meal log record checksum", e);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(data, offset + CRC_LENGTH + 1, length - CRC_LENGTH - 1);
+        if ((int) crc.getValue() != expected) {
+            throw new IOException("Meal log record checksum mismatch");
+        }
+        return objectMapper.readValue(data, offset + CRC_LENGTH + 1, length - CRC_LENGTH - 1, MealLogEntry.class);
+    }
+
+    /**
+     * @return Длина записи, начинающейся с {@code position}, включая перевод строки.
+     * @throws IllegalStateException если до {@code limit} нет конца записи.
+     */
+    private int recordLength(long position, long limit) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(READ_CHUNK);
+        long scanned = position;
+        while (scanned < limit) {
+            chunk.clear().limit((int) Math.min(READ_CHUNK, limit - scanned));
+            readFully(chunk, scanned);
+            int newline = indexOf(chunk.array(), 0, chunk.limit(), (byte) '\n');
+            if (newline >= 0) {
+                return Math.toIntExact(scanned + newline + 1 - position);
+            }
+            scanned += chunk.limit();
+        }
+        throw new IllegalStateException("Incomplete meal log record at offset " + position);
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of meal log");
+            }
+        }
+        buffer.flip();
+    }
+
+    private static int indexOf(byte[] data, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (data[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private long readCheckpoint() throws IOException {
+        if (Files.notExists(checkpointFile)) {
+            return 0;
+        }
+        return Long.parseLong(Files.readString(checkpointFile, StandardCharsets.US_ASCII).trim());
+    }
+
+    private void writeCheckpoint(long position) throws IOException {
+        Path tmp = checkpointFile.resolveSibling(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            out.write(ByteBuffer.wrap(Long.toString(position).getBytes(StandardCharsets.US_ASCII)));
+            out.force(true);
+        }
+        Files.move(tmp, checkpointFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Синхронизирует каталог, чтобы созданный файл журнала пережил падение сервера.
+     * На платформах, где каталог нельзя открыть как файл, шаг пропускается.
+     */
+    private static void syncDirectory(Path dir) {
+        try (FileChannel directory = FileChannel.open(dir, StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException e) {
+            log.debug("Directory sync is not supported for {}", dir, e);
+        }
+    }
+
+    /**
+     * Пачка записей журнала.
+     *
+     * @param entries Записи в порядке добавления.
+     * @param end     Смещение конца последней записи.
+     */
+    public record Batch(List<MealLogEntry> entries, long end) {
+    }
+}
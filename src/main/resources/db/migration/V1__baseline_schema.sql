@@ -0,0 +1,52 @@
+-- Схема на момент перехода с ddl-auto=update на Flyway.
+-- Существующие базы, созданные Hibernate, помечаются этой версией (baseline-on-migrate) без ее выполнения.
+
+CREATE SEQUENCE foods_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE meals_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE users (
+    id             BIGSERIAL PRIMARY KEY,
+    name           VARCHAR(255) NOT NULL,
+    email          VARCHAR(255) NOT NULL UNIQUE,
+    age            INTEGER      NOT NULL CHECK (age >= 18),
+    weight         FLOAT(53)    NOT NULL CHECK (weight >= 30 AND weight <= 300),
+    height         FLOAT(53)    NOT NULL CHECK (height >= 100 AND height <= 250),
+    goal           VARCHAR(255) NOT NULL CHECK (goal IN ('LOSE_WEIGHT', 'MAINTAIN_WEIGHT', 'GAIN_WEIGHT')),
+    daily_calories INTEGER      NOT NULL,
+    time_zone      VARCHAR(64)
+);
+
+CREATE TABLE foods (
+    id       BIGINT PRIMARY KEY,
+    name     VARCHAR(255) NOT NULL,
+    calories INTEGER      NOT NULL CHECK (calories >= 1),
+    protein  FLOAT(53)    NOT NULL CHECK (protein >= 0),
+    fat      FLOAT(53)    NOT NULL CHECK (fat >= 0),
+    carbs    FLOAT(53)    NOT NULL CHECK (carbs >= 0)
+);
+
+CREATE TABLE meals (
+    id        BIGINT PRIMARY KEY,
+    user_id   BIGINT       NOT NULL REFERENCES users (id),
+    date_time TIMESTAMP(6) NOT NULL,
+    local_day DATE
+);
+
+CREATE TABLE meal_foods (
+    meal_id BIGINT NOT NULL REFERENCES meals (id),
+    food_id BIGINT NOT NULL REFERENCES foods (id)
+);
+
+CREATE TABLE daily_calorie_summary (
+    user_id    BIGINT    NOT NULL,
+    day        DATE      NOT NULL,
+    calories   BIGINT    NOT NULL,
+    protein    FLOAT(53) NOT NULL,
+    fat        FLOAT(53) NOT NULL,
+    carbs      FLOAT(53) NOT NULL,
+    meal_count INTEGER   NOT NULL,
+    PRIMARY KEY (user_id, day)
+);
+
+CREATE INDEX idx_meals_user_date_time_id ON meals (user_id, date_time DESC, id DESC);
+CREATE INDEX idx_meals_user_local_day ON meals (user_id, local_day);
@@ -0,0 +1,36 @@
+-- Индексы под запросы приложения и выравнивание баз, созданных ddl-auto=update.
+-- Все операции идемпотентны: для новой базы после V1 они ничего не меняют.
+
+-- Поля, появившиеся позже первой схемы Hibernate
+ALTER TABLE users ADD COLUMN IF NOT EXISTS time_zone VARCHAR(64);
+ALTER TABLE meals ADD COLUMN IF NOT EXISTS local_day DATE;
+
+UPDATE users SET time_zone = 'UTC' WHERE time_zone IS NULL;
+ALTER TABLE users ALTER COLUMN time_zone SET DEFAULT 'UTC';
+ALTER TABLE users ALTER COLUMN time_zone SET NOT NULL;
+
+-- Старые приемы пищи относятся к дате date_time, как и до появления часовых поясов (пользователи в UTC)
+UPDATE meals SET local_day = CAST(date_time AS date) WHERE local_day IS NULL;
+ALTER TABLE meals ALTER COLUMN local_day SET NOT NULL;
+
+-- История и дневные отчеты: (user_id, date_time DESC) покрывается индексом keyset-пагинации
+CREATE INDEX IF NOT EXISTS idx_meals_user_date_time_id ON meals (user_id, date_time DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_meals_user_local_day ON meals (user_id, local_day);
+
+-- Загрузка блюд приема пищи и проверка ссылок при удалении блюда
+CREATE INDEX IF NOT EXISTS idx_meal_foods_meal_id ON meal_foods (meal_id);
+CREATE INDEX IF NOT EXISTS idx_meal_foods_food_id ON meal_foods (food_id);
+
+-- Поиск блюда по названию без учета регистра; заодно запрещает дубликаты вида "Pizza"/"pizza"
+CREATE UNIQUE INDEX IF NOT EXISTS uk_foods_lower_name ON foods (lower(name));
+
+-- Hibernate создает составной ключ в алфавитном порядке (day, user_id), а запросы фильтруют по user_id
+ALTER TABLE daily_calorie_summary DROP CONSTRAINT daily_calorie_summary_pkey;
+ALTER TABLE daily_calorie_summary ADD CONSTRAINT daily_calorie_summary_pkey PRIMARY KEY (user_id, day);
+
+-- Последовательности с выделением блоками по 50 не должны выдавать уже занятые ID
+-- (в старых базах ID приемов пищи и блюд выдавались через IDENTITY)
+CREATE SEQUENCE IF NOT EXISTS foods_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS meals_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('foods_seq', GREATEST((SELECT last_value FROM foods_seq), (SELECT COALESCE(MAX(id), 0) FROM foods) + 50));
+SELECT setval('meals_seq', GREATEST((SELECT last_value FROM meals_seq), (SELECT COALESCE(MAX(id), 0) FROM meals) + 50));
@@ -0,0 +1,27 @@
+-- Позиции приема пищи с количеством порций вместо связки meal_foods
+
+CREATE SEQUENCE meal_items_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE meal_items (
+    id       BIGINT           NOT NULL,
+    meal_id  BIGINT           NOT NULL,
+    food_id  BIGINT           NOT NULL,
+    quantity DOUBLE PRECISION NOT NULL,
+    CONSTRAINT meal_items_pkey PRIMARY KEY (id),
+    CONSTRAINT fk_meal_items_meal FOREIGN KEY (meal_id) REFERENCES meals (id),
+    CONSTRAINT fk_meal_items_food FOREIGN KEY (food_id) REFERENCES foods (id),
+    CONSTRAINT uk_meal_items_meal_food UNIQUE (meal_id, food_id),
+    CONSTRAINT ck_meal_items_quantity CHECK (quantity > 0)
+);
+
+-- Уникальный индекс (meal_id, food_id) покрывает загрузку позиций приема пищи,
+-- отдельный индекс нужен для проверки ссылок при удалении блюда
+CREATE INDEX idx_meal_items_food_id ON meal_items (food_id);
+
+-- Повторы блюда в старом приеме пищи становятся количеством порций
+INSERT INTO meal_items (id, meal_id, food_id, quantity)
+SELECT nextval('meal_items_seq'), meal_id, food_id, COUNT(*)
+FROM meal_foods
+GROUP BY meal_id, food_id;
+
+DROP TABLE meal_foods;
@@ -0,0 +1,27 @@
+-- Снимок пищевой ценности приема пищи на момент записи
+
+ALTER TABLE meals ADD COLUMN total_calories INTEGER          NOT NULL DEFAULT 0;
+ALTER TABLE meals ADD COLUMN total_protein  DOUBLE PRECISION NOT NULL DEFAULT 0;
+ALTER TABLE meals ADD COLUMN total_fat      DOUBLE PRECISION NOT NULL DEFAULT 0;
+ALTER TABLE meals ADD COLUMN total_carbs    DOUBLE PRECISION NOT NULL DEFAULT 0;
+
+-- Для существующих приемов пищи доступны только текущие значения блюд
+UPDATE meals m
+SET total_calories = ROUND(t.calories),
+    total_protein  = t.protein,
+    total_fat      = t.fat,
+    total_carbs    = t.carbs
+FROM (SELECT mi.meal_id,
+             SUM(f.calories * mi.quantity) AS calories,
+             SUM(f.protein * mi.quantity)  AS protein,
+             SUM(f.fat * mi.quantity)      AS fat,
+             SUM(f.carbs * mi.quantity)    AS carbs
+      FROM meal_items mi
+      JOIN foods f ON f.id = mi.food_id
+      GROUP BY mi.meal_id) t
+WHERE t.meal_id = m.id;
+
+ALTER TABLE meals ALTER COLUMN total_calories DROP DEFAULT;
+ALTER TABLE meals ALTER COLUMN total_protein DROP DEFAULT;
+ALTER TABLE meals ALTER COLUMN total_fat DROP DEFAULT;
+ALTER TABLE meals ALTER COLUMN total_carbs DROP DEFAULT;
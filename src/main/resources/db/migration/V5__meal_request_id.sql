@@ -0,0 +1,3 @@
+-- ID запроса асинхронной записи: повторное воспроизведение журнала не создает дубликатов
+ALTER TABLE meals ADD COLUMN request_id UUID;
+ALTER TABLE meals ADD CONSTRAINT uk_meals_request_id UNIQUE (request_id);
@@ -0,0 +1,69 @@
+package net.orekhov.calories_tracker.analytics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalorieHistogramTest {
+
+    @Test
+    @DisplayName("Квантили оцениваются с точностью до ширины интервала")
+    void quantiles() {
+        CalorieHistogram histogram = new CalorieHistogram();
+        for (int calories = 1000; calories < 3000; calories += 20) {
+            histogram.add(calories, 2000);
+        }
+
+        assertEquals(100, histogram.getUsers());
+        assertEquals(51, histogram.getWithinLimit());
+        assertEquals(1990, histogram.getAverage(), 1e-9);
+        assertEquals(2000, histogram.quantile(0.5), CalorieHistogram.BUCKET_WIDTH);
+        assertEquals(2800, histogram.quantile(0.9), CalorieHistogram.BUCKET_WIDTH);
+    }
+
+    @Test
+    @DisplayName("Удаление значения возвращает гистограмму в прежнее состояние")
+    void removeRetractsValue() {
+        CalorieHistogram histogram = new CalorieHistogram();
+        histogram.add(1200, 2000);
+        histogram.add(2500, 2000);
+        histogram.remove(2500, 2000);
+        histogram.add(2600, 2000);
+        histogram.remove(2600, 2000);
+
+        assertEquals(1, histogram.getUsers());
+        assertEquals(1, histogram.getWithinLimit());
+        assertEquals(List.of(new CalorieHistogram.Bucket(1200, 1250, 1)), histogram.buckets());
+    }
+
+    @Test
+    @DisplayName("Сумма гистограмм совпадает с гистограммой объединенных значений")
+    void mergeAddsCounts() {
+        CalorieHistogram first = new CalorieHistogram();
+        first.add(1000, 1500);
+        CalorieHistogram second = new CalorieHistogram();
+        second.add(1010, 900);
+        second.add(20000, 3000);
+
+        first.merge(second);
+
+        assertEquals(3, first.getUsers());
+        assertEquals(1, first.getWithinLimit());
+        assertEquals(List.of(new CalorieHistogram.Bucket(1000, 1050, 2), new CalorieHistogram.Bucket(9950, null, 1)),
+                first.buckets());
+        assertEquals(9950, first.quantile(1.0));
+    }
+
+    @Test
+    @DisplayName("Пустая гистограмма возвращает нули")
+    void emptyHistogram() {
+        CalorieHistogram histogram = new CalorieHistogram();
+
+        assertEquals(0, histogram.quantile(0.5));
+        assertEquals(0, histogram.getAverage());
+        assertTrue(histogram.buckets().isEmpty());
+    }
+}
@@ -0,0 +1,138 @@
+package net.orekhov.calories_tracker.analytics;
+
+import net.orekhov.calories_tracker.dto.CohortDayRow;
+import net.orekhov.calories_tracker.dto.CohortReport;
+import net.orekhov.calories_tracker.entity.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CohortStatisticsTest {
+
+    private final CohortStatistics statistics = new CohortStatistics(30);
+    private final LocalDate today = statistics.firstTrackedDay().plusDays(30);
+
+    private static CohortReport.Cohort cohort(CohortReport report, User.Goal goal) {
+        return report.getCohorts().stream().filter(c -> c.getGoal() == goal).findFirst().orElseThrow();
+    }
+
+    @Test
+    @DisplayName("Новый прием пищи переносит пользователя в другой интервал, последний удаленный — исключает его")
+    void applyMovesUserBetweenBuckets() {
+        statistics.apply(List.of(
+                new UserDayChange(User.Goal.LOSE_WEIGHT, 1800, today, 0, 0, 900, 1),
+                new UserDayChange(User.Goal.LOSE_WEIGHT, 1600, today, 0, 0, 1500, 2),
+                new UserDayChange(User.Goal.GAIN_WEIGHT, 3000, today, 0, 0, 2000, 1)));
+        statistics.apply(List.of(new UserDayChange(User.Goal.LOSE_WEIGHT, 1800, today, 900, 1, 2100, 2)));
+
+        CohortReport report = statistics.report(today);
+        CohortReport.Cohort lose = cohort(report, User.Goal.LOSE_WEIGHT);
+        assertEquals(2, lose.getUsers());
+        assertEquals(1, lose.getWithinLimit());
+        assertEquals(0.5, lose.getWithinLimitShare());
+        assertEquals(1800, lose.getAverageCalories());
+        assertEquals(2, lose.getDistribution().size());
+        assertEquals(0, cohort(report, User.Goal.MAINTAIN_WEIGHT).getUsers());
+        assertEquals(3, report.getTotal().getUsers());
+        assertEquals(2, report.getTotal().getWithinLimit());
+
+        statistics.apply(List.of(new UserDayChange(User.Goal.GAIN_WEIGHT, 3000, today, 2000, 1, 0, 0)));
+        assertEquals(0, cohort(statistics.report(today), User.Goal.GAIN_WEIGHT).getUsers());
+    }
+
+    @Test
+    @DisplayName("Заполнение заменяет статистику, дни раньше хранимого периода не учитываются")
+    void rebuildReplacesStatistics() {
+        statistics.apply(List.of(new UserDayChange(User.Goal.LOSE_WEIGHT, 1800, today, 0, 0, 900, 1)));
+
+        int rows = statistics.rebuild(() -> Stream.of(row(User.Goal.MAINTAIN_WEIGHT, 2200, today, 2100)));
+        statistics.apply(List.of(new UserDayChange(User.Goal.LOSE_WEIGHT, 1800, today.minusDays(31), 0, 0, 900, 1)));
+
+        assertEquals(1, rows);
+        CohortReport report = statistics.report(today);
+        assertEquals(0, cohort(report, User.Goal.LOSE_WEIGHT).getUsers());
+        assertEquals(1, cohort(report, User.Goal.MAINTAIN_WEIGHT).getUsers());
+        assertEquals(0, statistics.report(today.minusDays(31)).getTotal().getUsers());
+    }
+
+    @Test
+    @DisplayName("Изменения, примененные во время чтения сводок, не теряются после заполнения")
+    void rebuildReplaysChangesAppliedDuringQuery() {
+        int rows = statistics.rebuild(() -> Stream.of(
+                        row(User.Goal.LOSE_WEIGHT, 1800, today, 900),
+                        row(User.Goal.GAIN_WEIGHT, 3000, today, 2000))
+                .peek(row -> {
+                    if (row.getGoal() == User.Goal.LOSE_WEIGHT) {
+                        // Фиксация после начала запроса: ее нет в прочитанных сводках
+                        statistics.apply(List.of(
+                                new UserDayChange(User.Goal.MAINTAIN_WEIGHT, 2200, today, 0, 0, 2100, 1),
+                                new UserDayChange(User.Goal.GAIN_WEIGHT, 3000, today, 0, 0, 1500, 1)));
+                    }
+                }));
+
+        assertEquals(2, rows);
+        CohortReport report = statistics.report(today);
+        assertEquals(1, cohort(report, User.Goal.LOSE_WEIGHT).getUsers());
+        assertEquals(1, cohort(report, User.Goal.MAINTAIN_WEIGHT).getUsers());
+        assertEquals(2, cohort(report, User.Goal.GAIN_WEIGHT).getUsers());
+
+        statistics.apply(List.of(new UserDayChange(User.Goal.MAINTAIN_WEIGHT, 2200, today, 2100, 1, 0, 0)));
+        assertEquals(0, cohort(statistics.report(today), User.Goal.MAINTAIN_WEIGHT).getUsers());
+    }
+
+    @Test
+    @DisplayName("Запрос заполнения ждет завершения начатых фиксаций")
+    void rebuildWaitsForCommitsInProgress() throws Exception {
+        AtomicBoolean queried = new AtomicBoolean();
+        statistics.enterCommit();
+        CompletableFuture<Integer> rebuild;
+        try {
+            rebuild = CompletableFuture.supplyAsync(() -> statistics.rebuild(() -> {
+                queried.set(true);
+                return Stream.of(row(User.Goal.LOSE_WEIGHT, 1800, today, 900));
+            }));
+            assertThrows(TimeoutException.class, () -> rebuild.get(200, TimeUnit.MILLISECONDS));
+            assertFalse(queried.get());
+            // Изменение уже зафиксировано и будет видно запросу: повторно применяться не должно
+            statistics.apply(List.of(new UserDayChange(User.Goal.LOSE_WEIGHT, 1800, today, 0, 0, 900, 1)));
+        } finally {
+            statistics.exitCommit();
+        }
+
+        assertEquals(1, rebuild.get(5, TimeUnit.SECONDS));
+        assertEquals(1, cohort(statistics.report(today), User.Goal.LOSE_WEIGHT).getUsers());
+    }
+
+    private static CohortDayRow row(User.Goal goal, int dailyCalories, LocalDate day, long calories) {
+        return new CohortDayRow() {
+            @Override
+            public User.Goal getGoal() {
+                return goal;
+            }
+
+            @Override
+            public int getDailyCalories() {
+                return dailyCalories;
+            }
+
+            @Override
+            public LocalDate getDay() {
+                return day;
+            }
+
+            @Override
+            public long getCalories() {
+                return calories;
+            }
+        };
+    }
+}
@@ -0,0 +1,108 @@
+package net.orekhov.calories_tracker.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Нагрузочный тест запущенного приложения: пропускная способность и перцентили задержки.
+ * <p>
+ * Используется для сравнения режимов обработки запросов на платформенных и виртуальных потоках.
+ * Приложение запускается отдельно (с {@code VIRTUAL_THREADS_ENABLED=false}, затем {@code true}),
+ * после чего выполняется:
+ * </p>
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=net.orekhov.calories_tracker.benchmark.HttpLoadBenchmark \
+ *     -Dexec.args="http://localhost:8080 /reports/1/daily-calories,/meals/user/1 400 20000"
+ * </pre>
+ * Аргументы: базовый URL, список путей через запятую, число одновременных клиентов, общее число запросов.
+ */
+public final class HttpLoadBenchmark {
+
+    private HttpLoadBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        String[] paths = (args.length > 1 ? args[1] : "/reports/1/daily-calories").split(",");
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        int totalRequests = args.length > 3 ? Integer.parseInt(args[3]) : 10_000;
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        // Прогрев JIT и пулов соединений
+        run(client, baseUrl, paths, concurrency, Math.min(totalRequests, 2_000));
+        Result result = run(client, baseUrl, paths, concurrency, totalRequests);
+        System.out.println(result);
+    }
+
+    private static Result run(HttpClient client, String baseUrl, String[] paths,
+                              int concurrency, int totalRequests) throws Exception {
+        long[] latencies = new long[totalRequests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        long started = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> workers = new ArrayList<>(concurrency);
+            for (int worker = 0; worker < concurrency; worker++) {
+                workers.add(executor.submit(() -> {
+                    int i;
+                    while ((i = next.getAndIncrement()) < totalRequests) {
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + paths[i % paths.length]))
+                                .timeout(Duration.ofSeconds(30))
+                                .GET()
+                                .build();
+                        long requestStarted = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 500) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[i] = System.nanoTime() - requestStarted;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+        long elapsed = System.nanoTime() - started;
+        Arrays.sort(latencies);
+        return new Result(totalRequests, errors.get(), elapsed, latencies);
+    }
+
+    private record Result(int requests, int errors, long elapsedNanos, long[] sortedLatencies) {
+
+        double throughput() {
+            return requests / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        double percentileMillis(double percentile) {
+            int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(index, 0)] / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("requests=%d errors=%d throughput=%.1f req/s p50=%.2f ms p95=%.2f ms p99=%.2f ms",
+                    requests, errors, throughput(), percentileMillis(0.50), percentileMillis(0.95), percentileMillis(0.99));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package net.orekhov.calories_tracker.cache;
+
+import net.orekhov.calories_tracker.entity.Food;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FoodCatalogCacheTest {
+
+    @Test
+    @DisplayName("getByName() - Должен находить блюдо без учета регистра и пробелов")
+    void getByName_CaseInsensitive() {
+        FoodCatalogCache cache = new FoodCatalogCache(10);
+        Food pizza = food(1L, "Pizza");
+        cache.put(pizza);
+
+        assertSame(pizza, cache.getByName("  pIZZA ").orElseThrow());
+        assertSame(pizza, cache.getById(1L).orElseThrow());
+        assertTrue(cache.getByName("Burger").isEmpty());
+
+        FoodCatalogCache.Stats stats = cache.stats();
+        assertEquals(2, stats.getHits());
+        assertEquals(1, stats.getMisses());
+    }
+
+    @Test
+    @DisplayName("put() - Должен вытеснять давно не использованное блюдо из обоих индексов")
+    void put_EvictsLeastRecentlyUsed() {
+        FoodCatalogCache cache = new FoodCatalogCache(2);
+        cache.put(food(1L, "Pizza"));
+        cache.put(food(2L, "Salad"));
+        cache.getByName("pizza");
+        cache.put(food(3L, "Soup"));
+
+        assertTrue(cache.getById(1L).isPresent());
+        assertTrue(cache.getById(2L).isEmpty());
+        assertTrue(cache.getByName("salad").isEmpty());
+        assertEquals(2, cache.stats().getSize());
+        assertEquals(1, cache.stats().getEvictions());
+    }
+
+    @Test
+    @DisplayName("put() - Не должен кэшировать несохраненные блюда")
+    void put_IgnoresUnsavedFood() {
+        FoodCatalogCache cache = new FoodCatalogCache(2);
+        cache.put(new Food("Pizza", 300, 10.0, 12.0, 30.0));
+
+        assertEquals(0, cache.stats().getSize());
+        assertTrue(cache.getByName("Pizza").isEmpty());
+    }
+
+    private static Food food(Long id, String name) {
+        Food food = new Food(name, 100, 1.0, 1.0, 1.0);
+        ReflectionTestUtils.setField(food, "id", id);
+        return food;
+    }
+}
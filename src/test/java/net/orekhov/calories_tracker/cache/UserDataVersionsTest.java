@@ -0,0 +1,62 @@
+package net.orekhov.calories_tracker.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserDataVersionsTest {
+
+    private final UserDataVersions versions = new UserDataVersions();
+
+    @Test
+    @DisplayName("Изменение данных пользователя меняет только его ETag")
+    void bumpChangesETag() {
+        String first = versions.eTag(1L);
+        String other = versions.eTag(2L);
+
+        versions.bump(1L);
+
+        assertNotEquals(first, versions.eTag(1L));
+        assertEquals(other, versions.eTag(2L));
+        assertTrue(versions.eTag(1L).startsWith("W/\""));
+        assertTrue(versions.dailyETag(1L).startsWith(versions.eTag(1L).replaceFirst("\"$", "-")));
+    }
+
+    @Test
+    @DisplayName("ETag разных процессов не совпадают даже при одинаковой версии")
+    void eTagContainsProcessEpoch() {
+        assertNotEquals(versions.eTag(1L), new UserDataVersions().eTag(1L));
+    }
+
+    @Test
+    @DisplayName("В транзакции версия увеличивается только после фиксации")
+    void bumpAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            versions.bumpAfterCommit(1L);
+            assertEquals(0, versions.version(1L));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertEquals(1, versions.version(1L));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Недавнее изменение отмечается до истечения окна")
+    void changedWithin() {
+        assertFalse(versions.changedWithin(1L, Duration.ofSeconds(5)));
+
+        versions.bump(1L);
+
+        assertTrue(versions.changedWithin(1L, Duration.ofSeconds(5)));
+        assertFalse(versions.changedWithin(1L, Duration.ZERO));
+        assertFalse(versions.changedWithin(2L, Duration.ofSeconds(5)));
+    }
+}
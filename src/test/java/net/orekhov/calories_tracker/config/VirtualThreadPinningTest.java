@@ -0,0 +1,118 @@
+package net.orekhov.calories_tracker.config;
+
+import jakarta.persistence.EntityManager;
+import net.orekhov.calories_tracker.entity.Food;
+import net.orekhov.calories_tracker.repository.FoodRepository;
+import net.orekhov.calories_tracker.service.FoodService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет, что путь JPA/JDBC приложения (Spring Data, Hibernate, HikariCP, драйвер PostgreSQL)
+ * и его общие структуры не закрепляют (pin) виртуальные потоки на платформенных.
+ * <p>
+ * Запросы выполняются к базе PostgreSQL из {@code application.properties}; задержка ввода-вывода
+ * создается {@code pg_sleep}, а потоков больше, чем соединений в пуле, поэтому часть из них ждет
+ * соединение HikariCP. Закрепление фиксируется событием JFR {@code jdk.VirtualThreadPinned}.
+ * </p>
+ */
+@SpringBootTest
+class VirtualThreadPinningTest {
+
+    private static final Duration IO_DELAY = Duration.ofMillis(20);
+
+    @Test
+    @DisplayName("Блокирующий вызов под synchronized должен фиксироваться как закрепление")
+    void detectsPinning() throws Exception {
+        Object monitor = new Object();
+        List<RecordedEvent> events = recordPinning(() -> {
+            synchronized (monitor) {
+                sleep();
+            }
+            return null;
+        });
+
+        assertTrue(events.size() > 0, "JFR должен фиксировать закрепление под монитором");
+    }
+
+    @Autowired
+    private FoodRepository foodRepository;
+
+    @Autowired
+    private FoodService foodService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    @DisplayName("Запросы и вставки через JPA, HikariCP и драйвер PostgreSQL не должны закреплять виртуальные потоки")
+    void jpaPathDoesNotPin() throws Exception {
+        AtomicInteger counter = new AtomicInteger();
+
+        List<RecordedEvent> events = recordPinning(() -> transactionTemplate.execute(status -> {
+            entityManager.createNativeQuery("select pg_sleep(" + IO_DELAY.toMillis() / 1000.0 + ")").getSingleResult();
+            foodRepository.findFirstByNameIgnoreCase("Pinning check");
+            foodRepository.saveAndFlush(new Food("Pinning check " + counter.incrementAndGet() + " " + System.nanoTime(),
+                    100, 1.0, 1.0, 1.0));
+            foodService.getFoodsByIds(List.of(-1L));
+            status.setRollbackOnly();
+            return null;
+        }));
+
+        assertEquals(List.of(), events);
+    }
+
+    private static List<RecordedEvent> recordPinning(Callable<?> task) throws Exception {
+        Path file = Files.createTempFile("pinning", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(5));
+            recording.start();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < 16; i++) {
+                    futures.add(executor.submit(task));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            }
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(IO_DELAY);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
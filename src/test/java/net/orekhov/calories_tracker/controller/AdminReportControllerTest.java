@@ -0,0 +1,67 @@
+package net.orekhov.calories_tracker.controller;
+
+import net.orekhov.calories_tracker.analytics.CalorieHistogram;
+import net.orekhov.calories_tracker.dto.CohortReport;
+import net.orekhov.calories_tracker.entity.User;
+import net.orekhov.calories_tracker.exception.BadRequestException;
+import net.orekhov.calories_tracker.service.CohortReportService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Юнит-тесты для {@link AdminReportController}.
+ */
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(AdminReportController.class)
+class AdminReportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CohortReportService cohortReportService;
+
+    @Test
+    @DisplayName("GET /admin/reports/cohorts - Должен вернуть отчет по когортам за день")
+    void getCohorts() throws Exception {
+        LocalDate day = LocalDate.of(2024, 3, 1);
+        CalorieHistogram histogram = new CalorieHistogram();
+        histogram.add(1900, 2000);
+        histogram.add(2600, 2000);
+        CohortReport.Cohort cohort = CohortReport.Cohort.from(User.Goal.MAINTAIN_WEIGHT, histogram);
+        when(cohortReportService.getReport(day)).thenReturn(new CohortReport(day, List.of(cohort),
+                CohortReport.Cohort.from(null, histogram)));
+
+        mockMvc.perform(get("/admin/reports/cohorts").param("day", "2024-03-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.day", is("2024-03-01")))
+                .andExpect(jsonPath("$.cohorts[0].goal", is("MAINTAIN_WEIGHT")))
+                .andExpect(jsonPath("$.cohorts[0].withinLimitShare", is(0.5)))
+                .andExpect(jsonPath("$.cohorts[0].distribution[1].from", is(2600)))
+                .andExpect(jsonPath("$.total.users", is(2)));
+    }
+
+    @Test
+    @DisplayName("GET /admin/reports/cohorts - Должен вернуть 400 для дня вне хранимого периода")
+    void getCohorts_Expired() throws Exception {
+        when(cohortReportService.getReport(LocalDate.of(2020, 1, 1)))
+                .thenThrow(new BadRequestException("Cohort statistics are available from 2024-01-01"));
+
+        mockMvc.perform(get("/admin/reports/cohorts").param("day", "2020-01-01"))
+                .andExpect(status().isBadRequest());
+    }
+}
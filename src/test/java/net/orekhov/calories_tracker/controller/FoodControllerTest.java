@@ -1,6 +1,8 @@
 package net.orekhov.calories_tracker.controller;
 
+import net.orekhov.calories_tracker.cache.FoodCatalogCache;
 import net.orekhov.calories_tracker.entity.Food;
+import net.orekhov.calories_tracker.exception.BadRequestException;
 import net.orekhov.calories_tracker.exception.NotFoundException;
 import net.orekhov.calories_tracker.service.FoodService;
 import org.junit.jupiter.api.DisplayName;
@@ -93,4 +95,36 @@ class FoodControllerTest {
                 .andExpect(jsonPath("$.name", is("Burger")))
                 .andExpect(jsonPath("$.calories", is(500)));
     }
+
+    @Test
+    @DisplayName("GET /foods/cache/stats - Должен вернуть статистику кэша каталога блюд")
+    void getCacheStats() throws Exception {
+        when(foodService.getCacheStats()).thenReturn(new FoodCatalogCache.Stats(3, 1, 0, 2, 100));
+
+        mockMvc.perform(get("/foods/cache/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hits", is(3)))
+                .andExpect(jsonPath("$.misses", is(1)))
+                .andExpect(jsonPath("$.hitRatio", is(0.75)));
+    }
+
+    @Test
+    @DisplayName("GET /foods/search - Должен вернуть найденные блюда")
+    void searchFoods() throws Exception {
+        when(foodService.searchFoods("piz", 5)).thenReturn(List.of(new Food("Pizza", 300, 10.0, 12.0, 30.0)));
+
+        mockMvc.perform(get("/foods/search").param("q", "piz").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(1)))
+                .andExpect(jsonPath("$[0].name", is("Pizza")));
+    }
+
+    @Test
+    @DisplayName("GET /foods/search - Должен вернуть 400 при недопустимом лимите")
+    void searchFoods_BadLimit() throws Exception {
+        when(foodService.searchFoods("piz", 1000)).thenThrow(new BadRequestException("Limit must be between 1 and 50"));
+
+        mockMvc.perform(get("/foods/search").param("q", "piz").param("limit", "1000"))
+                .andExpect(status().isBadRequest());
+    }
 }
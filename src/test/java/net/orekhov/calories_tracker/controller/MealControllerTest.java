@@ -1,12 +1,18 @@
 package net.orekhov.calories_tracker.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import net.orekhov.calories_tracker.dto.MealRequestDto;
+import net.orekhov.calories_tracker.dto.MealBatchResult;
+import net.orekhov.calories_tracker.dto.MealPage;
+import net.orekhov.calories_tracker.dto.MealView;
 import net.orekhov.calories_tracker.entity.Food;
 import net.orekhov.calories_tracker.entity.Meal;
 import net.orekhov.calories_tracker.entity.User;
 import net.orekhov.calories_tracker.exception.NotFoundException;
 import net.orekhov.calories_tracker.repository.FoodRepository;
 import net.orekhov.calories_tracker.repository.UserRepository;
+import net.orekhov.calories_tracker.service.MealBatchService;
 import net.orekhov.calories_tracker.service.MealService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -17,15 +23,19 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -36,6 +46,10 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @ExtendWith(SpringExtension.class)
 @SpringBootTest
 @AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "calories-tracker.rate-limit.user.capacity=3",
+        "calories-tracker.rate-limit.user.refill-per-second=0.001"
+})
 class MealControllerTest {
 
     @Autowired
@@ -50,39 +64,114 @@ class MealControllerTest {
     @MockBean
     private FoodRepository foodRepository;
 
+    @MockBean
+    private MealBatchService mealBatchService;
+
     @Test
-    @DisplayName("POST /meals - Должен создать новый прием пищи")
+    @DisplayName("POST /meals - Должен создать новый прием пищи с количеством порций")
     void createMeal() throws Exception {
-        // Подготовка данных
-        MealRequestDto mealRequest = new MealRequestDto(1L, List.of(1L, 2L));
         User user = new User("John Doe", "john@example.com", 30, 80.0, 180.0, User.Goal.MAINTAIN_WEIGHT);
+        Food pizza = new Food("Pizza", 300, 10.0, 12.0, 30.0);
+        Food salad = new Food("Salad", 150, 5.0, 3.0, 20.0);
+        ReflectionTestUtils.setField(pizza, "id", 1L);
+        ReflectionTestUtils.setField(salad, "id", 2L);
 
-        // ✅ Исправлено: возвращаем **два** продукта
-        List<Food> foods = List.of(
-                new Food("Pizza", 300, 10.0, 12.0, 30.0),
-                new Food("Salad", 150, 5.0, 3.0, 20.0)
-        );
-
-        Meal meal = new Meal(user, foods, LocalDateTime.now());
-
-        // Моки
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(foodRepository.findAllById(List.of(1L, 2L))).thenReturn(foods); // ✅ Теперь 2 продукта
-        when(mealService.createMeal(any(Meal.class))).thenReturn(meal);
+        when(foodRepository.findAllByIdCached(anyList())).thenReturn(List.of(pizza, salad));
+        when(mealService.createMeal(any(Meal.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        // Тестируем запрос
         mockMvc.perform(post("/meals")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("""
                             {
                               "userId": 1,
-                              "foodIds": [1, 2]
+                              "foodIds": [1],
+                              "items": [{"foodId": 2, "quantity": 1.5}]
                             }
                             """))
-                .andExpect(status().isCreated()) // ✅ Ожидаем 201, а не 404
+                .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.user.name", is("John Doe")))
-                .andExpect(jsonPath("$.foods[0].name", is("Pizza")))
-                .andExpect(jsonPath("$.foods[1].name", is("Salad"))); // ✅ Проверяем оба продукта
+                .andExpect(jsonPath("$.items[0].food.name", is("Pizza")))
+                .andExpect(jsonPath("$.items[0].quantity", is(1.0)))
+                .andExpect(jsonPath("$.items[1].food.name", is("Salad")))
+                .andExpect(jsonPath("$.items[1].quantity", is(1.5)))
+                .andExpect(jsonPath("$.totalCalories", is(525)));
+    }
+
+    @Test
+    @DisplayName("POST /meals - Ограничение пользователя не обходится запросами с разных IP-адресов")
+    void createMeal_UserRateLimitAcrossIps() throws Exception {
+        User user = new User("John Doe", "john@example.com", 30, 80.0, 180.0, User.Goal.MAINTAIN_WEIGHT);
+        Food soup = new Food("Soup", 120, 6.0, 4.0, 15.0);
+        ReflectionTestUtils.setField(soup, "id", 42L);
+        when(userRepository.findById(42L)).thenReturn(Optional.of(user));
+        when(foodRepository.findAllByIdCached(List.of(42L))).thenReturn(List.of(soup));
+        when(mealService.createMeal(any(Meal.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        String body = """
+                {
+                  "userId": 42,
+                  "items": [{"foodId": 42, "quantity": 1}]
+                }
+                """;
+
+        for (String ip : List.of("10.0.0.1", "10.0.0.2", "10.0.0.1")) {
+            mockMvc.perform(post("/meals").contentType(MediaType.APPLICATION_JSON).content(body)
+                            .with(request -> {
+                                request.setRemoteAddr(ip);
+                                return request;
+                            }))
+                    .andExpect(status().isCreated());
+        }
+
+        mockMvc.perform(post("/meals").contentType(MediaType.APPLICATION_JSON).content(body)
+                        .with(request -> {
+                            request.setRemoteAddr("10.0.0.3");
+                            return request;
+                        }))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.error", is("Too many requests")));
+        verify(userRepository, times(3)).findById(42L);
+    }
+
+    @Test
+    @DisplayName("POST /meals - Должен вернуть 400 при неположительном количестве порций")
+    void createMeal_InvalidQuantity() throws Exception {
+        mockMvc.perform(post("/meals")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                            {
+                              "userId": 1,
+                              "items": [{"foodId": 2, "quantity": 0}]
+                            }
+                            """))
+                .andExpect(status().isBadRequest());
+
+        verify(mealService, never()).createMeal(any(Meal.class));
+    }
+
+    @Test
+    @DisplayName("POST /meals/batch - Должен вернуть результат по каждому элементу пакета")
+    void createMeals() throws Exception {
+        when(mealBatchService.createMeals(anyList())).thenReturn(List.of(
+                MealBatchResult.created(0, 42L),
+                MealBatchResult.failed(1, "User with id 2 not found")
+        ));
+
+        mockMvc.perform(post("/meals/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                            [
+                              {"userId": 1, "foodIds": [1]},
+                              {"userId": 2, "foodIds": [1]}
+                            ]
+                            """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created", is(1)))
+                .andExpect(jsonPath("$.failed", is(1)))
+                .andExpect(jsonPath("$.results[0].mealId", is(42)))
+                .andExpect(jsonPath("$.results[1].status", is("FAILED")))
+                .andExpect(jsonPath("$.results[1].error", is("User with id 2 not found")));
     }
 
     @Test
@@ -97,7 +186,7 @@ class MealControllerTest {
         mockMvc.perform(get("/meals/1"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.user.name", is("John Doe")))
-                .andExpect(jsonPath("$.foods[0].name", is("Pizza")));
+                .andExpect(jsonPath("$.items[0].food.name", is("Pizza")));
     }
 
     @Test
@@ -105,15 +194,40 @@ class MealControllerTest {
     void getUserMeals() throws Exception {
         User user = new User("John Doe", "john@example.com", 30, 80.0, 180.0, User.Goal.MAINTAIN_WEIGHT);
         List<Food> foods = List.of(new Food("Pizza", 300, 10.0, 12.0, 30.0));
-        List<Meal> meals = List.of(new Meal(user, foods, LocalDateTime.now()));
+        List<MealView> meals = List.of(MealView.from(new Meal(user, foods, LocalDateTime.now())));
+
+        when(mealService.getUserMeals(1L, null, 20)).thenReturn(new MealPage(meals, "next-cursor"));
+
+        mockMvc.perform(get("/meals/user/1").param("limit", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.size()", is(1)))
+                .andExpect(jsonPath("$.items[0].totalCalories", is(300)))
+                .andExpect(jsonPath("$.items[0].foods[0].name", is("Pizza")))
+                .andExpect(jsonPath("$.items[0].user").doesNotExist())
+                .andExpect(jsonPath("$.next", is("next-cursor")));
+    }
+
+    @Test
+    @DisplayName("GET /meals/user/{userId} - Должен вернуть историю в CBOR при Accept: application/cbor")
+    void getUserMeals_Cbor() throws Exception {
+        User user = new User("John Doe", "john@example.com", 30, 80.0, 180.0, User.Goal.MAINTAIN_WEIGHT);
+        List<Food> foods = List.of(new Food("Pizza", 300, 10.0, 12.0, 30.0));
+        LocalDateTime dateTime = LocalDateTime.of(2024, 3, 1, 13, 30);
+        List<MealView> meals = List.of(MealView.from(new Meal(user, foods, dateTime)));
 
-        when(mealService.getUserMeals(1L)).thenReturn(meals);
+        when(mealService.getUserMeals(1L, null, 20)).thenReturn(new MealPage(meals, "next-cursor"));
 
-        mockMvc.perform(get("/meals/user/1"))
+        byte[] body = mockMvc.perform(get("/meals/user/1").param("limit", "20").accept("application/cbor"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.size()", is(1)))
-                .andExpect(jsonPath("$[0].user.name", is("John Doe")))
-                .andExpect(jsonPath("$[0].foods[0].name", is("Pizza")));
+                .andExpect(content().contentType("application/cbor"))
+                .andExpect(header().string("Vary", containsString("Accept")))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode page = new CBORMapper().readTree(body);
+        assertThat(page.at("/items/0/foods/0/name").asText(), is("Pizza"));
+        assertThat(page.at("/items/0/totalCalories").asInt(), is(300));
+        assertThat(page.at("/items/0/dateTime").asText(), is("2024-03-01T13:30:00"));
+        assertThat(page.at("/next").asText(), is("next-cursor"));
     }
 
     @Test
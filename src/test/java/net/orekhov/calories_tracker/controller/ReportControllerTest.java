@@ -1,8 +1,18 @@
 package net.orekhov.calories_tracker.controller;
 
+import net.orekhov.calories_tracker.cache.UserDataVersions;
+import net.orekhov.calories_tracker.dto.DailyProgress;
+import net.orekhov.calories_tracker.dto.MealExportFormat;
+import net.orekhov.calories_tracker.dto.MealPage;
+import net.orekhov.calories_tracker.dto.MealView;
+import net.orekhov.calories_tracker.dto.NormalizedMealPage;
+import net.orekhov.calories_tracker.dto.NutritionBucket;
+import net.orekhov.calories_tracker.dto.ReportGranularity;
 import net.orekhov.calories_tracker.entity.Food;
 import net.orekhov.calories_tracker.entity.Meal;
 import net.orekhov.calories_tracker.entity.User;
+import net.orekhov.calories_tracker.service.LiveReportService;
+import net.orekhov.calories_tracker.service.MealExportService;
 import net.orekhov.calories_tracker.service.ReportService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,17 +21,33 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -30,6 +56,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  */
 @ExtendWith(SpringExtension.class)
 @WebMvcTest(ReportController.class)
+@Import(UserDataVersions.class)
 class ReportControllerTest {
 
     @Autowired
@@ -38,6 +65,15 @@ class ReportControllerTest {
     @MockBean
     private ReportService reportService;
 
+    @MockBean
+    private MealExportService mealExportService;
+
+    @Autowired
+    private UserDataVersions userDataVersions;
+
+    @MockBean
+    private LiveReportService liveReportService;
+
     /**
      * Тестирует получение количества потребленных калорий за день.
      */
@@ -51,6 +87,58 @@ class ReportControllerTest {
                 .andExpect(jsonPath("$.totalCalories", is(1800)));
     }
 
+    @Test
+    @DisplayName("GET /reports/{userId}/daily-calories - Должен вернуть 304 без обращения к сервису при совпадении ETag")
+    void getDailyCalories_NotModified() throws Exception {
+        when(reportService.getDailyCalories(1L)).thenReturn(1800);
+        String eTag = mockMvc.perform(get("/reports/1/daily-calories"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/reports/1/daily-calories").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(reportService, times(1)).getDailyCalories(1L);
+    }
+
+    @Test
+    @DisplayName("GET /reports/{userId}/meal-history - Должен вернуть новые данные после изменения приемов пищи")
+    void getMealHistory_ModifiedAfterBump() throws Exception {
+        when(reportService.getMealHistory(1L, null, 50)).thenReturn(new MealPage(List.of(), null));
+        String eTag = mockMvc.perform(get("/reports/1/meal-history"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/reports/1/meal-history").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        userDataVersions.bump(1L);
+
+        mockMvc.perform(get("/reports/1/meal-history").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, userDataVersions.eTag(1L)));
+        verify(reportService, times(2)).getMealHistory(1L, null, 50);
+    }
+
+    @Test
+    @DisplayName("GET /reports/{userId}/live - Должен открыть поток событий с текущим итогом дня")
+    void streamDailyProgress() throws Exception {
+        SseEmitter emitter = new SseEmitter();
+        emitter.send(SseEmitter.event().name("daily-total").data(new DailyProgress(LocalDate.of(2024, 3, 1), 1800, 2000)));
+        when(liveReportService.subscribe(1L)).thenReturn(emitter);
+
+        MvcResult result = mockMvc.perform(get("/reports/1/live").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        emitter.complete();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string(containsString("event:daily-total")))
+                .andExpect(content().string(containsString("\"remainingCalories\":200")));
+    }
+
     /**
      * Тестирует проверку превышения дневного лимита калорий.
      */
@@ -72,14 +160,145 @@ class ReportControllerTest {
     void getMealHistory() throws Exception {
         User user = new User("John Doe", "john@example.com", 30, 80.0, 180.0, User.Goal.MAINTAIN_WEIGHT);
         List<Food> foods = List.of(new Food("Pizza", 300, 10.0, 12.0, 30.0));
-        List<Meal> meals = List.of(new Meal(user, foods, LocalDateTime.now()));
+        List<MealView> meals = List.of(MealView.from(new Meal(user, foods, LocalDateTime.now())));
+
+        when(reportService.getMealHistory(1L, null, 20)).thenReturn(new MealPage(meals, "next-cursor"));
+
+        mockMvc.perform(get("/reports/1/meal-history").param("limit", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.size()", is(1)))
+                .andExpect(jsonPath("$.items[0].totalCalories", is(300)))
+                .andExpect(jsonPath("$.items[0].foods[0].name", is("Pizza")))
+                .andExpect(jsonPath("$.items[0].user").doesNotExist())
+                .andExpect(jsonPath("$.next", is("next-cursor")));
+    }
+
+    /**
+     * Тестирует нормализованный вид истории приемов пищи.
+     */
+    @Test
+    @DisplayName("GET /reports/{userId}/meal-history?shape=normalized - Должен вернуть словарь блюд и ссылки на них")
+    void getMealHistory_Normalized() throws Exception {
+        User user = new User("John Doe", "john@example.com", 30, 80.0, 180.0, User.Goal.MAINTAIN_WEIGHT);
+        ReflectionTestUtils.setField(user, "id", 1L);
+        Food pizza = new Food("Pizza", 300, 10.0, 12.0, 30.0);
+        ReflectionTestUtils.setField(pizza, "id", 10L);
+        Meal meal = new Meal(user, List.of(pizza, pizza), LocalDateTime.of(2024, 3, 1, 13, 30));
+        ReflectionTestUtils.setField(meal, "id", 5L);
+
+        when(reportService.getNormalizedMealHistory(1L, null, 20))
+                .thenReturn(new NormalizedMealPage(user, List.of(meal, meal), null));
+
+        mockMvc.perform(get("/reports/1/meal-history").param("limit", "20").param("shape", "normalized"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.user.name", is("John Doe")))
+                .andExpect(jsonPath("$.user.email").doesNotExist())
+                .andExpect(jsonPath("$.foods.size()", is(1)))
+                .andExpect(jsonPath("$.foods.10.name", is("Pizza")))
+                .andExpect(jsonPath("$.meals.size()", is(2)))
+                .andExpect(jsonPath("$.meals[0].dateTime", is("2024-03-01T13:30:00")))
+                .andExpect(jsonPath("$.meals[0].items[0].foodId", is(10)))
+                .andExpect(jsonPath("$.meals[0].items[0].quantity", is(2.0)))
+                .andExpect(jsonPath("$.meals[0].totalCalories", is(600)));
+
+        mockMvc.perform(get("/reports/1/meal-history").param("shape", "compact"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Тестирует потоковую выгрузку истории приемов пищи.
+     */
+    @Test
+    @DisplayName("GET /reports/{userId}/meal-history/export - Должен потоково выгрузить историю в CSV")
+    void exportMealHistory() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write("meal_id\n1\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(mealExportService).exportMealHistory(eq(1L), eq(MealExportFormat.CSV), any());
+
+        MvcResult result = mockMvc.perform(get("/reports/1/meal-history/export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"meal-history-1.csv\""))
+                .andExpect(content().string("meal_id\n1\n"));
+    }
+
+    /**
+     * Тестирует отказ для неподдерживаемого формата выгрузки.
+     */
+    @Test
+    @DisplayName("GET /reports/{userId}/meal-history/export - Должен вернуть 400 для неизвестного формата")
+    void exportMealHistory_UnsupportedFormat() throws Exception {
+        mockMvc.perform(get("/reports/1/meal-history/export").param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Unsupported export format 'xml'")));
+    }
 
-        when(reportService.getMealHistory(1L)).thenReturn(meals);
+    /**
+     * Тестирует отчет по питанию за период с группировкой по неделям.
+     */
+    @Test
+    @DisplayName("GET /reports/{userId}/nutrition - Должен вернуть калории и макронутриенты по интервалам")
+    void getNutritionReport() throws Exception {
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 1, 14);
+        when(reportService.getNutritionReport(1L, from, to, ReportGranularity.WEEK))
+                .thenReturn(List.of(bucket(from, 14000, 700.0), bucket(LocalDate.of(2024, 1, 8), 12600, 650.0)));
 
-        mockMvc.perform(get("/reports/1/meal-history"))
+        mockMvc.perform(get("/reports/1/nutrition")
+                        .param("from", "2024-01-01")
+                        .param("to", "2024-01-14")
+                        .param("granularity", "week"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.size()", is(1)))
-                .andExpect(jsonPath("$[0].user.name", is("John Doe")))
-                .andExpect(jsonPath("$[0].foods[0].name", is("Pizza")));
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].periodStart", is("2024-01-01")))
+                .andExpect(jsonPath("$[0].calories", is(14000)))
+                .andExpect(jsonPath("$[1].protein", is(650.0)));
+    }
+
+    /**
+     * Тестирует отказ при неподдерживаемом шаге группировки.
+     */
+    @Test
+    @DisplayName("GET /reports/{userId}/nutrition - Должен вернуть 400 при неизвестном шаге группировки")
+    void getNutritionReport_BadGranularity() throws Exception {
+        mockMvc.perform(get("/reports/1/nutrition")
+                        .param("from", "2024-01-01")
+                        .param("to", "2024-01-14")
+                        .param("granularity", "year"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static NutritionBucket bucket(LocalDate periodStart, long calories, double protein) {
+        return new NutritionBucket() {
+            public LocalDate getPeriodStart() {
+                return periodStart;
+            }
+
+            public long getCalories() {
+                return calories;
+            }
+
+            public double getProtein() {
+                return protein;
+            }
+
+            public double getFat() {
+                return 0;
+            }
+
+            public double getCarbs() {
+                return 0;
+            }
+
+            public long getMealCount() {
+                return 1;
+            }
+        };
     }
 }
@@ -0,0 +1,153 @@
+package net.orekhov.calories_tracker.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.orekhov.calories_tracker.cache.UserDataVersions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReadWriteRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private ReplicaLagMonitor lagMonitor;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection replicaConnection;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserDataVersions userDataVersions = new UserDataVersions();
+    private final ReplicaReads replicaReads = new ReplicaReads(userDataVersions, Duration.ofSeconds(5), 1000);
+    private ReadWriteRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new ReadWriteRoutingDataSource(primary, replica, lagMonitor, meterRegistry);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        completeTransaction();
+    }
+
+    @Test
+    @DisplayName("Разрешенная транзакция только для чтения получает соединение реплики")
+    void readOnlyTransactionUsesReplica() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(lagMonitor.isUsable()).thenReturn(true);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+
+        replicaReads.allowFor(1L);
+
+        assertSame(replicaConnection, dataSource.getConnection());
+        assertEquals(1, connections("replica"));
+        assertEquals(0, connections("primary"));
+    }
+
+    @Test
+    @DisplayName("Изменяющая транзакция и чтение без разрешения идут на основной сервер")
+    void writesAndUnmarkedReadsUsePrimary() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        replicaReads.allowFor(1L);
+        assertSame(primaryConnection, dataSource.getConnection());
+
+        completeTransaction();
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertSame(primaryConnection, dataSource.getConnection());
+
+        verifyNoInteractions(replica);
+        assertEquals(2, connections("primary"));
+    }
+
+    @Test
+    @DisplayName("Отчеты пользователя сразу после изменения его данных читаются с основного сервера")
+    void recentlyChangedUserReadsFromPrimary() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        userDataVersions.bump(1L);
+
+        replicaReads.allowFor(1L);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        verifyNoInteractions(replica);
+    }
+
+    @Test
+    @DisplayName("Отстающая реплика не используется")
+    void laggingReplicaIsSkipped() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(lagMonitor.isUsable()).thenReturn(false);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        replicaReads.allowFor(1L);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        verifyNoInteractions(replica);
+    }
+
+    @Test
+    @DisplayName("Ошибка подключения к реплике переключает запрос на основной сервер и исключает реплику")
+    void replicaFailureFallsBackToPrimary() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(lagMonitor.isUsable()).thenReturn(true);
+        SQLException failure = new SQLException("Connection refused");
+        when(replica.getConnection()).thenThrow(failure);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        replicaReads.allowFor(1L);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        verify(lagMonitor).markUnavailable(failure);
+        assertEquals(1, meterRegistry.get("datasource.routing.fallbacks").counter().count());
+        assertEquals(1, connections("primary"));
+    }
+
+    @Test
+    @DisplayName("Разрешение реплики снимается по завершении транзакции")
+    void allowanceEndsWithTransaction() {
+        replicaReads.allowFor(1L);
+        assertTrue(ReplicaReads.isAllowed());
+
+        completeTransaction();
+
+        assertFalse(ReplicaReads.isAllowed());
+    }
+
+    private static void completeTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.getSynchronizations().forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clear();
+    }
+
+    private double connections(String pool) {
+        return meterRegistry.get("datasource.routing.connections").tag("pool", pool).counter().count();
+    }
+}
@@ -0,0 +1,90 @@
+package net.orekhov.calories_tracker.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaLagMonitorTest {
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private Statement statement;
+
+    @Mock
+    private ResultSet resultSet;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ReplicaLagMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        monitor = new ReplicaLagMonitor(replica, Duration.ofSeconds(5), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("До первой проверки реплика не используется")
+    void unusableUntilChecked() {
+        assertFalse(monitor.isUsable());
+    }
+
+    @Test
+    @DisplayName("Реплика используется, пока отставание не превышает max-lag")
+    void usableWithinMaxLag() throws SQLException {
+        lag(1.5, false);
+        monitor.check();
+        assertTrue(monitor.isUsable());
+        assertEquals(1.5, meterRegistry.get("datasource.replica.lag").gauge().value());
+
+        lag(7.0, false);
+        monitor.check();
+        assertFalse(monitor.isUsable());
+    }
+
+    @Test
+    @DisplayName("Остановленная репликация и ошибка подключения исключают реплику")
+    void unusableWhenReplicationStoppedOrUnreachable() throws SQLException {
+        lag(0, false);
+        monitor.check();
+        assertTrue(monitor.isUsable());
+
+        lag(0, true);
+        monitor.check();
+        assertFalse(monitor.isUsable());
+
+        lag(0, false);
+        monitor.check();
+        when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        monitor.check();
+        assertFalse(monitor.isUsable());
+        assertEquals(0, meterRegistry.get("datasource.replica.usable").gauge().value());
+    }
+
+    private void lag(double seconds, boolean replicationStopped) throws SQLException {
+        when(replica.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(ReplicaLagMonitor.LAG_QUERY)).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getDouble(1)).thenReturn(seconds);
+        when(resultSet.wasNull()).thenReturn(replicationStopped);
+    }
+}
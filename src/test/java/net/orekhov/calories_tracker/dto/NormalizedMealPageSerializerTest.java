@@ -0,0 +1,77 @@
+package net.orekhov.calories_tracker.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import net.orekhov.calories_tracker.entity.Food;
+import net.orekhov.calories_tracker.entity.Meal;
+import net.orekhov.calories_tracker.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NormalizedMealPageSerializerTest {
+
+    private NormalizedMealPage page;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User("John Doe", "john@example.com", 30, 80.0, 180.0, User.Goal.MAINTAIN_WEIGHT);
+        ReflectionTestUtils.setField(user, "id", 1L);
+        Food pizza = food(10L, "Pizza", 300);
+        Food salad = food(11L, "Salad", 150);
+        Meal lunch = new Meal(user, List.of(pizza, salad), LocalDateTime.of(2024, 3, 1, 13, 30));
+        Meal dinner = new Meal(user, List.of(salad), LocalDateTime.of(2024, 3, 1, 19, 0));
+        ReflectionTestUtils.setField(lunch, "id", 5L);
+        ReflectionTestUtils.setField(dinner, "id", 6L);
+        page = new NormalizedMealPage(user, List.of(dinner, lunch), "cursor");
+    }
+
+    private static Food food(Long id, String name, int calories) {
+        Food food = new Food(name, calories, 1.0, 2.0, 3.0);
+        ReflectionTestUtils.setField(food, "id", id);
+        return food;
+    }
+
+    @Test
+    @DisplayName("Блюда записываются один раз в словарь, приемы пищи ссылаются на них по ID")
+    void writesFoodsOnce() throws Exception {
+        JsonNode json = new ObjectMapper().readTree(new ObjectMapper().writeValueAsBytes(page));
+
+        assertEquals(List.of("user", "foods", "meals", "next"), fieldNames(json));
+        assertEquals(List.of("id", "name", "goal", "timeZone", "dailyCalories"), fieldNames(json.get("user")));
+        assertEquals(List.of("11", "10"), fieldNames(json.get("foods")));
+        assertEquals("Salad", json.at("/foods/11/name").asText());
+        assertEquals(150, json.at("/foods/11/calories").asInt());
+
+        assertEquals(6, json.at("/meals/0/id").asLong());
+        assertEquals("2024-03-01T19:00:00", json.at("/meals/0/dateTime").asText());
+        assertEquals(11, json.at("/meals/0/items/0/foodId").asLong());
+        assertEquals(1.0, json.at("/meals/0/items/0/quantity").asDouble());
+        assertEquals(450, json.at("/meals/1/totalCalories").asInt());
+        assertEquals(2, json.at("/meals/1/items").size());
+        assertEquals("cursor", json.get("next").asText());
+    }
+
+    @Test
+    @DisplayName("Структура одинакова в JSON и бинарном формате")
+    void sameStructureInSmile() throws Exception {
+        SmileMapper smile = new SmileMapper();
+        JsonNode json = new ObjectMapper().readTree(new ObjectMapper().writeValueAsBytes(page));
+
+        assertEquals(json, smile.readTree(smile.writeValueAsBytes(page)));
+    }
+
+    private static List<String> fieldNames(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+}
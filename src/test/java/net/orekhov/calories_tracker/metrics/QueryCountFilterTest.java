@@ -0,0 +1,49 @@
+package net.orekhov.calories_tracker.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryCountFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private QueryCountFilter filter;
+    private QueryCountInspector inspector;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new QueryCountFilter(meterRegistry);
+        inspector = new QueryCountInspector();
+    }
+
+    @Test
+    void testRecordsQueriesPerRequestByUriTemplate() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/reports/1/daily-calories");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/reports/{userId}/daily-calories");
+            inspector.inspect("select 1");
+            inspector.inspect("select 2");
+        });
+
+        DistributionSummary summary = meterRegistry.get(QueryCountFilter.METRIC_NAME)
+                .tag("method", "GET")
+                .tag("uri", "/reports/{userId}/daily-calories")
+                .summary();
+        assertEquals(1, summary.count());
+        assertEquals(2.0, summary.totalAmount());
+    }
+
+    @Test
+    void testInspectorIgnoresQueriesOutsideRequest() {
+        assertEquals("select 1", inspector.inspect("select 1"));
+        assertEquals(0, QueryCountInspector.stop());
+    }
+}
@@ -0,0 +1,44 @@
+package net.orekhov.calories_tracker.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SecondLevelCacheMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private Statistics statistics;
+    private CacheRegionStatistics foods;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        statistics = mock(Statistics.class);
+        foods = mock(CacheRegionStatistics.class);
+        when(statistics.getSecondLevelCacheRegionNames()).thenReturn(new String[]{"foods", "users"});
+        when(statistics.getDomainDataRegionStatistics("foods")).thenReturn(foods);
+        new SecondLevelCacheMetrics(statistics).bindTo(meterRegistry);
+    }
+
+    @Test
+    void testPublishesHitRatioPerRegion() {
+        when(foods.getHitCount()).thenReturn(3L);
+        when(foods.getMissCount()).thenReturn(1L);
+
+        assertEquals(0.75, meterRegistry.get("hibernate.second.level.cache.hit.ratio")
+                .tag("region", "foods").gauge().value());
+    }
+
+    @Test
+    void testHitRatioIsUndefinedWithoutRequests() {
+        assertTrue(Double.isNaN(meterRegistry.get("hibernate.second.level.cache.hit.ratio")
+                .tag("region", "foods").gauge().value()));
+        assertTrue(Double.isNaN(meterRegistry.get("hibernate.second.level.cache.hit.ratio")
+                .tag("region", "users").gauge().value()));
+    }
+}
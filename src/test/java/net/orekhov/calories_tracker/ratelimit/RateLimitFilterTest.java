@@ -0,0 +1,80 @@
+package net.orekhov.calories_tracker.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.orekhov.calories_tracker.exception.TooManyRequestsException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RateLimitFilter(new TokenBucketLimiter<>(3, 0.5), new TokenBucketLimiter<>(2, 0.5), meterRegistry);
+    }
+
+    private MockHttpServletResponse perform(String method, String uri, String remoteAddr) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr(remoteAddr);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    @Test
+    @DisplayName("После исчерпания корзины IP-адреса возвращается 429 с Retry-After")
+    void rejectsOverIpLimit() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, perform("POST", "/meals", "10.0.0.1").getStatus());
+        }
+
+        MockHttpServletResponse rejected = perform("POST", "/meals", "10.0.0.1");
+
+        assertEquals(429, rejected.getStatus());
+        assertEquals("2", rejected.getHeader("Retry-After"));
+        assertEquals("{\"error\":\"Too many requests\"}", rejected.getContentAsString());
+        assertEquals(200, perform("POST", "/meals", "10.0.0.2").getStatus());
+        assertEquals(1.0, meterRegistry.get(RateLimitFilter.REJECTED_METRIC).tag("limit", "ip").counter().count());
+    }
+
+    @Test
+    @DisplayName("Запросы к данным пользователя ограничиваются по пользователю независимо от IP-адреса")
+    void rejectsOverUserLimit() throws Exception {
+        assertEquals(200, perform("GET", "/reports/7/daily-calories", "10.0.0.1").getStatus());
+        assertEquals(200, perform("GET", "/meals/user/7", "10.0.0.2").getStatus());
+
+        assertEquals(429, perform("GET", "/reports/7/meal-history", "10.0.0.3").getStatus());
+        assertEquals(200, perform("GET", "/reports/8/daily-calories", "10.0.0.3").getStatus());
+        assertEquals(1.0, meterRegistry.get(RateLimitFilter.REJECTED_METRIC).tag("limit", "user").counter().count());
+        assertEquals(2.0, meterRegistry.get("rate.limit.buckets").tag("limit", "user").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Токен пользователя из тела запроса берется из той же корзины, что и по пути")
+    void acquireUserTokenSharesUserBucket() throws Exception {
+        assertEquals(200, perform("GET", "/reports/7/daily-calories", "10.0.0.1").getStatus());
+        filter.acquireUserToken(7L);
+
+        TooManyRequestsException e = assertThrows(TooManyRequestsException.class, () -> filter.acquireUserToken(7L));
+        assertEquals(2, e.getRetryAfterSeconds());
+        assertEquals(429, perform("GET", "/meals/user/7", "10.0.0.2").getStatus());
+        assertEquals(2.0, meterRegistry.get(RateLimitFilter.REJECTED_METRIC).tag("limit", "user").counter().count());
+    }
+
+    @Test
+    @DisplayName("Эндпоинты Actuator не ограничиваются")
+    void skipsActuator() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, perform("GET", "/actuator/prometheus", "10.0.0.1").getStatus());
+        }
+    }
+}
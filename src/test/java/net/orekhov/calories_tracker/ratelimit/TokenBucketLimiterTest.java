@@ -0,0 +1,96 @@
+package net.orekhov.calories_tracker.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("Новая корзина пропускает всплеск размером с емкость, затем сообщает время ожидания")
+    void allowsBurstUpToCapacity() {
+        TokenBucketLimiter<String> limiter = new TokenBucketLimiter<>(3, 1);
+        long now = 1_000 * SECOND;
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("a", now));
+        }
+        assertEquals(SECOND, limiter.tryAcquire("a", now));
+        assertEquals(SECOND / 2, limiter.tryAcquire("a", now + SECOND / 2));
+        assertEquals(0, limiter.tryAcquire("b", now), "корзины разных ключей независимы");
+    }
+
+    @Test
+    @DisplayName("Токены пополняются со временем, но не сверх емкости")
+    void refillsAtConfiguredRate() {
+        TokenBucketLimiter<Long> limiter = new TokenBucketLimiter<>(2, 10);
+        long now = -5 * SECOND;
+        limiter.tryAcquire(1L, now);
+        limiter.tryAcquire(1L, now);
+
+        assertTrue(limiter.tryAcquire(1L, now) > 0);
+        assertEquals(0, limiter.tryAcquire(1L, now + SECOND / 10));
+        assertTrue(limiter.tryAcquire(1L, now + SECOND / 10) > 0);
+
+        long later = now + 60 * SECOND;
+        assertEquals(0, limiter.tryAcquire(1L, later));
+        assertEquals(0, limiter.tryAcquire(1L, later));
+        assertTrue(limiter.tryAcquire(1L, later) > 0);
+    }
+
+    @Test
+    @DisplayName("Удаляются только полностью пополненные корзины")
+    void evictsOnlyFullBuckets() {
+        TokenBucketLimiter<String> limiter = new TokenBucketLimiter<>(5, 1);
+        long now = 0;
+        limiter.tryAcquire("idle", now);
+        limiter.tryAcquire("busy", now + 10 * SECOND);
+
+        limiter.evictIdle(now + 2 * SECOND);
+
+        assertEquals(1, limiter.size());
+        limiter.evictIdle(now + 12 * SECOND);
+        assertEquals(0, limiter.size());
+    }
+
+    @Test
+    @DisplayName("При конкурентных запросах выдается ровно емкость корзины")
+    void grantsExactlyCapacityUnderContention() throws Exception {
+        TokenBucketLimiter<String> limiter = new TokenBucketLimiter<>(1_000, 0.001);
+        long now = System.nanoTime();
+        AtomicInteger granted = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            var futures = IntStream.range(0, 8)
+                    .mapToObj(t -> executor.submit(() -> {
+                        for (int i = 0; i < 1_000; i++) {
+                            if (limiter.tryAcquire("shared", now) == 0) {
+                                granted.incrementAndGet();
+                            }
+                        }
+                    }))
+                    .toList();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        assertEquals(1_000, granted.get());
+    }
+
+    @Test
+    void rejectsInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketLimiter<>(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketLimiter<>(1, 0));
+    }
+}
@@ -0,0 +1,104 @@
+package net.orekhov.calories_tracker.search;
+
+import net.orekhov.calories_tracker.entity.Food;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FoodSearchIndexTest {
+
+    private FoodSearchIndex index;
+    private long nextId;
+
+    @BeforeEach
+    void setUp() {
+        index = new FoodSearchIndex();
+        nextId = 1;
+        index.rebuild(List.of(food("Apple"), food("Apple Pie"), food("Green Apple"),
+                food("Pineapple Juice"), food("Banana"), food("Chicken Breast Grilled")));
+    }
+
+    private Food food(String name) {
+        Food food = new Food(name, 100, 1.0, 1.0, 1.0);
+        ReflectionTestUtils.setField(food, "id", nextId++);
+        return food;
+    }
+
+    private List<String> names(String query, int limit) {
+        return index.search(query, limit).stream().map(Food::getName).toList();
+    }
+
+    @Test
+    @DisplayName("Точное совпадение, затем начало названия, затем начало слова")
+    void ranksPrefixMatches() {
+        assertEquals(List.of("Apple", "Apple Pie", "Green Apple"), names("APP", 10));
+        assertEquals(List.of("Apple"), names("apple", 1));
+    }
+
+    @Test
+    @DisplayName("Префикс длиннее глубины дерева дофильтровывается по полному названию")
+    void matchesLongPrefix() {
+        assertEquals(List.of("Chicken Breast Grilled"), names("chicken breast g", 10));
+        assertEquals(List.of(), names("chicken breast x", 10).stream().filter(n -> n.startsWith("x")).toList());
+    }
+
+    @Test
+    @DisplayName("Запрос с опечаткой находит блюдо через триграммы")
+    void toleratesTypos() {
+        assertEquals("Banana", names("bananna", 10).get(0));
+        assertEquals("Pineapple Juice", names("pinaple", 10).get(0));
+        assertTrue(names("xyzxyz", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Опечатка исправляется и в большом словаре с общими триграммами")
+    void toleratesTyposInLargeVocabulary() {
+        List<Food> catalog = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            catalog.add(food("Banan" + Integer.toString(i, 36) + " Smoothie"));
+        }
+        catalog.add(food("Bananas Foster"));
+        index.rebuild(catalog);
+
+        assertEquals("Bananas Foster", names("bananas fostr", 10).get(0));
+    }
+
+    @Test
+    @DisplayName("Новое блюдо добавляется без перестроения, повторы и блюда без ID игнорируются")
+    void addsIncrementally() {
+        Food pizza = food("Pizza");
+        index.add(pizza);
+        index.add(pizza);
+        index.add(new Food("Pasta", 100, 1.0, 1.0, 1.0));
+
+        assertEquals(7, index.size());
+        assertEquals(pizza, index.search("piz", 10).get(0));
+    }
+
+    @Test
+    @DisplayName("Лимит ограничивает выдачу лучшими совпадениями")
+    void respectsLimitOnLargeCatalog() {
+        List<Food> catalog = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            catalog.add(food("Soup " + i));
+        }
+        index.rebuild(catalog);
+
+        List<String> result = names("soup", 3);
+        assertEquals(List.of("Soup 0", "Soup 1", "Soup 2"), result);
+    }
+
+    @Test
+    @DisplayName("Расстояние считается до лучшего префикса названия")
+    void prefixDistance() {
+        assertEquals(0, FoodSearchIndex.prefixDistance("pine", "pineapple", 2));
+        assertEquals(1, FoodSearchIndex.prefixDistance("pineaple", "pineapple juice", 2));
+        assertTrue(FoodSearchIndex.prefixDistance("zzzz", "pineapple", 1) > 1);
+    }
+}
@@ -0,0 +1,191 @@
+package net.orekhov.calories_tracker.service;
+
+import net.orekhov.calories_tracker.analytics.CohortStatistics;
+import net.orekhov.calories_tracker.analytics.UserDayChange;
+import net.orekhov.calories_tracker.dto.DailyTotals;
+import net.orekhov.calories_tracker.entity.Food;
+import net.orekhov.calories_tracker.entity.Meal;
+import net.orekhov.calories_tracker.entity.User;
+import net.orekhov.calories_tracker.repository.DailyCalorieSummaryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DailySummaryServiceTest {
+
+    @Mock
+    private DailyCalorieSummaryRepository summaryRepository;
+
+    @Mock
+    private CohortStatistics cohortStatistics;
+
+    @InjectMocks
+    private DailySummaryService dailySummaryService;
+
+    private List<Food> foods;
+    private Meal sampleMeal;
+
+    @BeforeEach
+    void setUp() {
+        TransactionSynchronizationManager.initSynchronization();
+        lenient().when(summaryRepository.addToSummary(any(), any(), anyLong(), anyDouble(), anyDouble(), anyDouble(), anyInt()))
+                .thenAnswer(invocation -> totals(invocation.getArgument(2), invocation.<Integer>getArgument(6)));
+        User user = mock(User.class);
+        lenient().when(user.getId()).thenReturn(1L);
+        lenient().when(user.getZoneId()).thenReturn(ZoneId.systemDefault());
+        lenient().when(user.getGoal()).thenReturn(User.Goal.LOSE_WEIGHT);
+        lenient().when(user.getDailyCalories()).thenReturn(2000);
+        foods = List.of(
+                new Food("Pizza", 300, 10.0, 12.0, 30.0),
+                new Food("Salad", 150, 5.0, 3.0, 20.0)
+        );
+        sampleMeal = new Meal(user, foods, LocalDateTime.of(2024, 3, 1, 13, 30));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private static DailyTotals totals(long calories, long mealCount) {
+        return new DailyTotals() {
+            @Override
+            public long getCalories() {
+                return calories;
+            }
+
+            @Override
+            public long getMealCount() {
+                return mealCount;
+            }
+        };
+    }
+
+    private static void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(s -> s.beforeCommit(false));
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    @Test
+    @DisplayName("recordMeal() - Должен прибавить прием пищи к сводке за его день")
+    void recordMeal() {
+        dailySummaryService.recordMeal(sampleMeal);
+
+        verify(summaryRepository, times(1))
+                .addToSummary(1L, LocalDate.of(2024, 3, 1), 450, 15.0, 15.0, 50.0, 1);
+    }
+
+    @Test
+    @DisplayName("recordMeal() - Должен относить прием пищи к дню в часовом поясе пользователя")
+    void recordMeal_UserTimeZone() {
+        User user = new User("John Doe", "john@example.com", 30, 80.0, 180.0, User.Goal.MAINTAIN_WEIGHT);
+        user.setTimeZone("Pacific/Kiritimati");
+        ReflectionTestUtils.setField(user, "id", 2L);
+        LocalDateTime serverTime = LocalDateTime.of(2024, 3, 1, 23, 30);
+        LocalDate userDay = serverTime.atZone(ZoneId.systemDefault())
+                .withZoneSameInstant(ZoneId.of("Pacific/Kiritimati"))
+                .toLocalDate();
+
+        dailySummaryService.recordMeal(new Meal(user, foods, serverTime));
+
+        verify(summaryRepository, times(1)).addToSummary(2L, userDay, 450, 15.0, 15.0, 50.0, 1);
+    }
+
+    @Test
+    @DisplayName("recordMeals() - Должен выполнить одно обновление на каждую пару пользователь-день")
+    void recordMeals() {
+        Meal sameDay = new Meal(sampleMeal.getUser(), foods, LocalDateTime.of(2024, 3, 1, 19, 0));
+        Meal nextDay = new Meal(sampleMeal.getUser(), foods, LocalDateTime.of(2024, 3, 2, 8, 0));
+
+        dailySummaryService.recordMeals(List.of(sampleMeal, sameDay, nextDay));
+
+        verify(summaryRepository, times(1))
+                .addToSummary(1L, LocalDate.of(2024, 3, 1), 900, 30.0, 30.0, 100.0, 2);
+        verify(summaryRepository, times(1))
+                .addToSummary(1L, LocalDate.of(2024, 3, 2), 450, 15.0, 15.0, 50.0, 1);
+        verifyNoMoreInteractions(summaryRepository);
+    }
+
+    @Test
+    @DisplayName("removeMeal() - Должен вычесть прием пищи из сводки за его день")
+    void removeMeal() {
+        dailySummaryService.removeMeal(sampleMeal);
+
+        verify(summaryRepository, times(1))
+                .addToSummary(1L, LocalDate.of(2024, 3, 1), -450, -15.0, -15.0, -50.0, -1);
+    }
+
+    @Test
+    @DisplayName("recordMeal() - Должен передать сводку до и после изменения в когортную статистику только после фиксации")
+    void recordMeal_CohortStatisticsAfterCommit() {
+        when(summaryRepository.addToSummary(1L, LocalDate.of(2024, 3, 1), 450, 15.0, 15.0, 50.0, 1))
+                .thenReturn(totals(1250, 3));
+
+        dailySummaryService.recordMeal(sampleMeal);
+        verifyNoInteractions(cohortStatistics);
+        commit();
+
+        var inOrder = inOrder(cohortStatistics);
+        inOrder.verify(cohortStatistics).enterCommit();
+        inOrder.verify(cohortStatistics).apply(List.of(new UserDayChange(User.Goal.LOSE_WEIGHT, 2000,
+                LocalDate.of(2024, 3, 1), 800, 2, 1250, 3)));
+        inOrder.verify(cohortStatistics).exitCommit();
+    }
+
+    @Test
+    @DisplayName("recordMeal() - Откат до фиксации не должен менять статистику и отмечать фиксацию")
+    void recordMeal_RolledBack() {
+        dailySummaryService.recordMeal(sampleMeal);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verifyNoInteractions(cohortStatistics);
+    }
+
+    @Test
+    @DisplayName("removeMeal() - Последний удаленный прием пищи должен исключать пользователя из статистики дня")
+    void removeMeal_CohortStatistics() {
+        when(summaryRepository.addToSummary(1L, LocalDate.of(2024, 3, 1), -450, -15.0, -15.0, -50.0, -1))
+                .thenReturn(totals(0, 0));
+
+        dailySummaryService.removeMeal(sampleMeal);
+        commit();
+
+        verify(cohortStatistics, times(1)).apply(List.of(new UserDayChange(User.Goal.LOSE_WEIGHT, 2000,
+                LocalDate.of(2024, 3, 1), 450, 1, 0, 0)));
+    }
+
+    @Test
+    @DisplayName("rebuild() - Должен очистить и заново заполнить сводки")
+    void rebuild() {
+        when(summaryRepository.insertSummariesFromMeals()).thenReturn(3);
+
+        int rows = dailySummaryService.rebuild();
+
+        assertEquals(3, rows);
+        var inOrder = inOrder(summaryRepository);
+        inOrder.verify(summaryRepository).deleteAllSummaries();
+        inOrder.verify(summaryRepository).insertSummariesFromMeals();
+        verify(summaryRepository, never()).addToSummary(any(), any(), anyLong(), anyDouble(), anyDouble(), anyDouble(), anyInt());
+    }
+}
@@ -1,15 +1,24 @@
 package net.orekhov.calories_tracker.service;
 
+import net.orekhov.calories_tracker.cache.FoodCatalogCache;
 import net.orekhov.calories_tracker.entity.Food;
+import net.orekhov.calories_tracker.exception.BadRequestException;
 import net.orekhov.calories_tracker.exception.NotFoundException;
 import net.orekhov.calories_tracker.repository.FoodRepository;
+import net.orekhov.calories_tracker.search.FoodSearchIndex;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 import java.util.Optional;
@@ -23,6 +32,12 @@ class FoodServiceTest {
     @Mock
     private FoodRepository foodRepository;
 
+    @Spy
+    private FoodCatalogCache foodCatalogCache = new FoodCatalogCache(100);
+
+    @Spy
+    private FoodSearchIndex foodSearchIndex = new FoodSearchIndex();
+
     @InjectMocks
     private FoodService foodService;
 
@@ -30,9 +45,24 @@ class FoodServiceTest {
 
     @BeforeEach
     void setUp() {
+        TransactionSynchronizationManager.initSynchronization();
         sampleFood = new Food("Pizza", 300, 10.0, 12.0, 30.0);
     }
 
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private static void commit() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    }
+
+    private static void rollback() {
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    }
+
     @Test
     @DisplayName("getAllFoods() - Должен вернуть список всех блюд")
     void getAllFoods() {
@@ -96,4 +126,111 @@ class FoodServiceTest {
         assertEquals("Food with name 'Unknown' not found", exception.getMessage());
         verify(foodRepository, times(1)).findFirstByNameIgnoreCase("Unknown");
     }
+
+    @Test
+    @DisplayName("getFoodByName() - Повторный поиск должен обслуживаться из кэша без учета регистра")
+    void getFoodByName_Cached() {
+        ReflectionTestUtils.setField(sampleFood, "id", 1L);
+        when(foodRepository.findFirstByNameIgnoreCase("Pizza")).thenReturn(Optional.of(sampleFood));
+
+        foodService.getFoodByName("Pizza");
+        Food cachedFood = foodService.getFoodByName(" PIZZA ");
+
+        assertSame(sampleFood, cachedFood);
+        verify(foodRepository, times(1)).findFirstByNameIgnoreCase(anyString());
+        assertEquals(1, foodService.getCacheStats().getHits());
+    }
+
+    @Test
+    @DisplayName("createFood() - Созданное блюдо должно попадать в кэш")
+    void createFood_WriteThrough() {
+        Food savedFood = new Food("Pizza", 300, 10.0, 12.0, 30.0);
+        ReflectionTestUtils.setField(savedFood, "id", 1L);
+        when(foodRepository.findFirstByNameIgnoreCase("Pizza")).thenReturn(Optional.empty());
+        when(foodRepository.save(sampleFood)).thenReturn(savedFood);
+
+        foodService.createFood(sampleFood);
+        commit();
+
+        assertSame(savedFood, foodService.getFoodByName("pizza"));
+        assertEquals(List.of(savedFood), foodService.getFoodsByIds(List.of(1L)));
+        verify(foodRepository, never()).findAllByIdCached(any());
+    }
+
+    @Test
+    @DisplayName("getFoodsByIds() - Должен загружать одним запросом только блюда, отсутствующие в кэше")
+    void getFoodsByIds() {
+        Food salad = new Food("Salad", 150, 5.0, 3.0, 20.0);
+        ReflectionTestUtils.setField(sampleFood, "id", 1L);
+        ReflectionTestUtils.setField(salad, "id", 2L);
+        foodCatalogCache.put(sampleFood);
+        when(foodRepository.findAllByIdCached(List.of(2L))).thenReturn(List.of(salad));
+
+        List<Food> foods = foodService.getFoodsByIds(List.of(1L, 2L, 2L));
+
+        assertEquals(List.of(sampleFood, salad), foods);
+        verify(foodRepository, times(1)).findAllByIdCached(List.of(2L));
+    }
+
+    @Test
+    @DisplayName("createFood() - Созданное блюдо должно сразу находиться поиском")
+    void createFood_IndexedForSearch() {
+        Food savedFood = new Food("Pizza Margherita", 300, 10.0, 12.0, 30.0);
+        ReflectionTestUtils.setField(savedFood, "id", 1L);
+        when(foodRepository.findFirstByNameIgnoreCase("Pizza Margherita")).thenReturn(Optional.empty());
+        when(foodRepository.save(savedFood)).thenReturn(savedFood);
+
+        foodService.createFood(savedFood);
+        commit();
+
+        assertEquals(List.of(savedFood), foodService.searchFoods("marg", 10));
+    }
+
+    @Test
+    @DisplayName("createFood() - Блюдо из откаченной транзакции не должно попадать в кэш и поиск")
+    void createFood_RolledBack() {
+        Food savedFood = new Food("Pizza", 300, 10.0, 12.0, 30.0);
+        ReflectionTestUtils.setField(savedFood, "id", 1L);
+        when(foodRepository.findFirstByNameIgnoreCase("Pizza")).thenReturn(Optional.empty());
+        when(foodRepository.save(sampleFood)).thenReturn(savedFood);
+
+        foodService.createFood(sampleFood);
+        rollback();
+
+        assertTrue(foodCatalogCache.getByName("Pizza").isEmpty());
+        assertTrue(foodCatalogCache.getById(1L).isEmpty());
+        assertEquals(List.of(), foodService.searchFoods("pizza", 10));
+    }
+
+    @Test
+    @DisplayName("createFood() - Ошибка сохранения не должна оставлять блюдо в кэше и поиске")
+    void createFood_SaveFails() {
+        when(foodRepository.findFirstByNameIgnoreCase("Pizza")).thenReturn(Optional.empty());
+        when(foodRepository.save(sampleFood)).thenThrow(new DataIntegrityViolationException("uk_foods_lower_name"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> foodService.createFood(sampleFood));
+
+        assertTrue(TransactionSynchronizationManager.getSynchronizations().isEmpty());
+        assertTrue(foodCatalogCache.getByName("Pizza").isEmpty());
+        assertEquals(List.of(), foodService.searchFoods("pizza", 10));
+    }
+
+    @Test
+    @DisplayName("searchFoods() - Должен отклонять пустой запрос и лимит вне диапазона")
+    void searchFoods_Invalid() {
+        assertThrows(BadRequestException.class, () -> foodService.searchFoods(" ", 10));
+        assertThrows(BadRequestException.class, () -> foodService.searchFoods("pizza", 0));
+        assertThrows(BadRequestException.class, () -> foodService.searchFoods("pizza", FoodSearchIndex.MAX_LIMIT + 1));
+        verifyNoInteractions(foodSearchIndex);
+    }
+
+    @Test
+    @DisplayName("rebuildSearchIndex() - Должен проиндексировать весь каталог")
+    void rebuildSearchIndex() {
+        ReflectionTestUtils.setField(sampleFood, "id", 1L);
+        when(foodRepository.findAll()).thenReturn(List.of(sampleFood));
+
+        assertEquals(1, foodService.rebuildSearchIndex());
+        assertEquals(List.of(sampleFood), foodService.searchFoods("pizza", 10));
+    }
 }
@@ -0,0 +1,120 @@
+package net.orekhov.calories_tracker.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.orekhov.calories_tracker.cache.UserDataVersions;
+import net.orekhov.calories_tracker.dto.DailyProgress;
+import net.orekhov.calories_tracker.event.MealChangedEvent;
+import net.orekhov.calories_tracker.exception.NotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LiveReportServiceTest {
+
+    @Mock
+    private ReportService reportService;
+
+    private UserDataVersions userDataVersions;
+    private SimpleMeterRegistry meterRegistry;
+    private LiveReportService liveReportService;
+
+    @BeforeEach
+    void setUp() {
+        userDataVersions = new UserDataVersions();
+        meterRegistry = new SimpleMeterRegistry();
+        liveReportService = new LiveReportService(reportService, userDataVersions, meterRegistry);
+    }
+
+    private static DailyProgress progress(int totalCalories) {
+        return new DailyProgress(LocalDate.of(2024, 3, 1), totalCalories, 2000);
+    }
+
+    @Test
+    @DisplayName("subscribe() - Должен зарегистрировать подписку и прочитать текущий итог")
+    void subscribe() {
+        when(reportService.getDailyProgress(1L)).thenReturn(progress(500));
+
+        SseEmitter emitter = liveReportService.subscribe(1L);
+
+        assertNotNull(emitter);
+        assertEquals(1, liveReportService.subscriptionCount(1L));
+        assertEquals(1, meterRegistry.get("reports.live.connections").gauge().value());
+    }
+
+    @Test
+    @DisplayName("subscribe() - Не должен оставлять подписку для несуществующего пользователя")
+    void subscribe_UserNotFound() {
+        when(reportService.getDailyProgress(1L)).thenThrow(new NotFoundException("User with id 1 not found"));
+
+        assertThrows(NotFoundException.class, () -> liveReportService.subscribe(1L));
+        assertEquals(0, liveReportService.subscriptionCount(1L));
+        assertEquals(0, meterRegistry.get("reports.live.connections").gauge().value());
+    }
+
+    @Test
+    @DisplayName("onMealChanged() - Должен пересчитать итог один раз для всех подписок пользователя")
+    void onMealChanged() {
+        when(reportService.getDailyProgress(1L)).thenReturn(progress(500), progress(500), progress(900));
+        liveReportService.subscribe(1L);
+        liveReportService.subscribe(1L);
+
+        liveReportService.onMealChanged(new MealChangedEvent(1L));
+
+        verify(reportService, times(3)).getDailyProgress(1L);
+        assertEquals(2, liveReportService.subscriptionCount(1L));
+    }
+
+    @Test
+    @DisplayName("onMealChanged() - Не должен обращаться к базе, если у пользователя нет подписок")
+    void onMealChanged_NoSubscribers() {
+        liveReportService.onMealChanged(new MealChangedEvent(2L));
+
+        verifyNoInteractions(reportService);
+    }
+
+    @Test
+    @DisplayName("onMealChanged() - Не должен отправлять итог, пересчитанный раньше уже отправленного")
+    void onMealChanged_DropsStaleTotal() throws Exception {
+        SseEmitter emitter = mock(SseEmitter.class);
+        LiveReportService service = spy(liveReportService);
+        doReturn(emitter).when(service).createEmitter();
+        when(reportService.getDailyProgress(1L))
+                .thenReturn(progress(500))
+                .thenAnswer(invocation -> {
+                    // Пока первый обработчик читает итог, второе изменение фиксируется и рассылается
+                    userDataVersions.bump(1L);
+                    service.onMealChanged(new MealChangedEvent(1L));
+                    return progress(700);
+                })
+                .thenReturn(progress(900));
+        service.subscribe(1L);
+        userDataVersions.bump(1L);
+
+        service.onMealChanged(new MealChangedEvent(1L));
+
+        assertEquals(List.of(500, 900), sentTotals(emitter));
+    }
+
+    private static List<Integer> sentTotals(SseEmitter emitter) throws Exception {
+        ArgumentCaptor<SseEmitter.SseEventBuilder> events = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+        verify(emitter, atLeastOnce()).send(events.capture());
+        return events.getAllValues().stream()
+                .flatMap(event -> event.build().stream())
+                .map(part -> part.getData())
+                .filter(DailyProgress.class::isInstance)
+                .map(data -> ((DailyProgress) data).getTotalCalories())
+                .toList();
+    }
+}
@@ -0,0 +1,177 @@
+package net.orekhov.calories_tracker.service;
+
+import net.orekhov.calories_tracker.dto.MealBatchResult;
+import net.orekhov.calories_tracker.dto.MealItemDto;
+import net.orekhov.calories_tracker.dto.MealRequestDto;
+import net.orekhov.calories_tracker.entity.Food;
+import net.orekhov.calories_tracker.entity.Meal;
+import net.orekhov.calories_tracker.entity.User;
+import net.orekhov.calories_tracker.exception.BadRequestException;
+import net.orekhov.calories_tracker.repository.MealRepository;
+import net.orekhov.calories_tracker.repository.UserRepository;
+import net.orekhov.calories_tracker.wal.MealLogEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MealBatchServiceTest {
+
+    @Mock
+    private MealService mealService;
+
+    @Mock
+    private FoodService foodService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private MealRepository mealRepository;
+
+    @InjectMocks
+    private MealBatchService mealBatchService;
+
+    private User sampleUser;
+    private Food pizza;
+
+    @BeforeEach
+    void setUp() {
+        sampleUser = new User("John Doe", "john@example.com", 30, 80.0, 180.0, User.Goal.MAINTAIN_WEIGHT);
+        ReflectionTestUtils.setField(sampleUser, "id", 1L);
+        pizza = new Food("Pizza", 300, 10.0, 12.0, 30.0);
+        ReflectionTestUtils.setField(pizza, "id", 10L);
+    }
+
+    @Test
+    @DisplayName("createMeals() - Должен сохранить корректные элементы и вернуть ошибки для остальных")
+    @SuppressWarnings("unchecked")
+    void createMeals_PartialFailure() {
+        when(userRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(sampleUser));
+        when(foodService.getFoodsByIds(Set.of(10L, 11L))).thenReturn(List.of(pizza));
+        when(mealService.createMeals(anyList())).thenAnswer(invocation -> {
+            List<Meal> meals = invocation.getArgument(0);
+            for (int i = 0; i < meals.size(); i++) {
+                ReflectionTestUtils.setField(meals.get(i), "id", 100L + i);
+            }
+            return meals;
+        });
+
+        List<MealBatchResult> results = mealBatchService.createMeals(List.of(
+                new MealRequestDto(1L, List.of(10L)),
+                new MealRequestDto(2L, List.of(10L)),
+                new MealRequestDto(1L, List.of(10L, 11L)),
+                new MealRequestDto(null, List.of(10L)),
+                new MealRequestDto(1L, List.of(10L, 10L))
+        ));
+
+        assertEquals(5, results.size());
+        assertEquals(MealBatchResult.Status.CREATED, results.get(0).getStatus());
+        assertEquals(100L, results.get(0).getMealId());
+        assertEquals("User with id 2 not found", results.get(1).getError());
+        assertEquals("Food with id 11 not found", results.get(2).getError());
+        assertEquals("User ID cannot be null", results.get(3).getError());
+        assertEquals(MealBatchResult.Status.CREATED, results.get(4).getStatus());
+        assertEquals(101L, results.get(4).getMealId());
+
+        ArgumentCaptor<List<Meal>> saved = ArgumentCaptor.forClass(List.class);
+        verify(mealService, times(1)).createMeals(saved.capture());
+        assertEquals(2, saved.getValue().size());
+        assertEquals(600, saved.getValue().get(1).getTotalCalories());
+        assertEquals(1, saved.getValue().get(1).getItems().size());
+        assertEquals(2.0, saved.getValue().get(1).getItems().get(0).getQuantity());
+        verify(userRepository, times(1)).findAllById(any(Collection.class));
+        verify(foodService, times(1)).getFoodsByIds(any());
+    }
+
+    @Test
+    @DisplayName("createMeals() - Должен учитывать количество порций и отклонять неположительное количество")
+    @SuppressWarnings("unchecked")
+    void createMeals_Quantities() {
+        when(userRepository.findAllById(Set.of(1L))).thenReturn(List.of(sampleUser));
+        when(foodService.getFoodsByIds(Set.of(10L))).thenReturn(List.of(pizza));
+        when(mealService.createMeals(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<MealBatchResult> results = mealBatchService.createMeals(List.of(
+                new MealRequestDto(1L, List.of(10L), List.of(new MealItemDto(10L, 0.25))),
+                new MealRequestDto(1L, null, List.of(new MealItemDto(10L, -1)))
+        ));
+
+        assertEquals(MealBatchResult.Status.CREATED, results.get(0).getStatus());
+        assertEquals("Quantity must be positive", results.get(1).getError());
+
+        ArgumentCaptor<List<Meal>> saved = ArgumentCaptor.forClass(List.class);
+        verify(mealService, times(1)).createMeals(saved.capture());
+        Meal meal = saved.getValue().get(0);
+        assertEquals(1.25, meal.getItems().get(0).getQuantity());
+        assertEquals(375, meal.getTotalCalories());
+        assertEquals(37.5, meal.getTotalCarbs());
+    }
+
+    @Test
+    @DisplayName("createMeals() - Не должен обращаться к базе, если все элементы некорректны")
+    void createMeals_AllFailed() {
+        List<MealBatchResult> results = mealBatchService.createMeals(List.of(new MealRequestDto(1L, List.of())));
+
+        assertEquals(MealBatchResult.Status.FAILED, results.get(0).getStatus());
+        verify(mealService, never()).createMeals(anyList());
+    }
+
+    @Test
+    @DisplayName("createMeals() - Должен выбросить BadRequestException для пустого пакета")
+    void createMeals_EmptyBatch() {
+        assertThrows(BadRequestException.class, () -> mealBatchService.createMeals(List.of()));
+        verifyNoInteractions(userRepository, foodService, mealService);
+    }
+
+    @Test
+    @DisplayName("createLoggedMeals() - Должен пропустить уже сохраненные записи и записи с удаленным блюдом")
+    @SuppressWarnings("unchecked")
+    void createLoggedMeals_SkipsStoredAndMissing() {
+        LocalDateTime time = LocalDateTime.of(2024, 1, 1, 12, 0);
+        MealLogEntry stored = new MealLogEntry(UUID.randomUUID(), 1L, time, Map.of(10L, 1.0));
+        MealLogEntry fresh = new MealLogEntry(UUID.randomUUID(), 1L, time, Map.of(10L, 2.0));
+        MealLogEntry missingFood = new MealLogEntry(UUID.randomUUID(), 1L, time, Map.of(11L, 1.0));
+        when(mealRepository.findExistingRequestIds(any())).thenReturn(List.of(stored.getRequestId()));
+        when(userRepository.findAllById(Set.of(1L))).thenReturn(List.of(sampleUser));
+        when(foodService.getFoodsByIds(Set.of(10L, 11L))).thenReturn(List.of(pizza));
+        when(mealService.createMeals(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        int created = mealBatchService.createLoggedMeals(List.of(stored, fresh, missingFood, fresh));
+
+        assertEquals(1, created);
+        ArgumentCaptor<List<Meal>> saved = ArgumentCaptor.forClass(List.class);
+        verify(mealService, times(1)).createMeals(saved.capture());
+        Meal meal = saved.getValue().get(0);
+        assertEquals(fresh.getRequestId(), meal.getRequestId());
+        assertEquals(time, meal.getDateTime());
+        assertEquals(600, meal.getTotalCalories());
+    }
+
+    @Test
+    @DisplayName("createLoggedMeals() - Не должен обращаться к пользователям и блюдам, если все записи уже сохранены")
+    void createLoggedMeals_AllStored() {
+        MealLogEntry stored = new MealLogEntry(UUID.randomUUID(), 1L, LocalDateTime.now(), Map.of(10L, 1.0));
+        when(mealRepository.findExistingRequestIds(any())).thenReturn(List.of(stored.getRequestId()));
+
+        assertEquals(0, mealBatchService.createLoggedMeals(List.of(stored)));
+        verifyNoInteractions(userRepository, foodService, mealService);
+    }
+}
@@ -0,0 +1,134 @@
+package net.orekhov.calories_tracker.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import net.orekhov.calories_tracker.datasource.ReplicaReads;
+import net.orekhov.calories_tracker.dto.MealExportFormat;
+import net.orekhov.calories_tracker.dto.MealExportRow;
+import net.orekhov.calories_tracker.repository.MealRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MealExportServiceTest {
+
+    private static final LocalDateTime LUNCH = LocalDateTime.of(2024, 3, 1, 13, 30);
+    private static final LocalDateTime BREAKFAST = LocalDateTime.of(2024, 3, 1, 8, 0);
+
+    @Mock
+    private MealRepository mealRepository;
+
+    @Mock
+    private ReplicaReads replicaReads;
+
+    private MealExportService mealExportService;
+
+    private final AtomicBoolean streamClosed = new AtomicBoolean();
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        mealExportService = new MealExportService(mealRepository, objectMapper, replicaReads);
+        when(mealRepository.streamExportRows(1L)).thenReturn(Stream.<MealExportRow>of(
+                new Row(2L, LUNCH, 10L, "Pizza", 1, 600, 20.0, 18.0, 70.0),
+                new Row(2L, LUNCH, 11L, "Salad, green", 2, 600, 20.0, 18.0, 70.0),
+                new Row(1L, BREAKFAST, 12L, "Oatmeal", 0.5, 100, 3.0, 2.0, 17.5)
+        ).onClose(() -> streamClosed.set(true)));
+    }
+
+    @Test
+    @DisplayName("exportMealHistory() - Должен выгрузить по одному JSON-объекту на прием пищи с учетом порций")
+    void exportMealHistory_Ndjson() throws Exception {
+        String[] lines = export(MealExportFormat.NDJSON).split("\n");
+
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":2,\"dateTime\":\"2024-03-01T13:30:00\",\"userId\":1,"));
+        assertTrue(lines[0].contains("\"totalCalories\":600"));
+        assertTrue(lines[1].contains("\"name\":\"Oatmeal\",\"quantity\":0.5"));
+        assertTrue(lines[1].contains("\"totalCalories\":100"));
+        assertTrue(streamClosed.get());
+    }
+
+    @Test
+    @DisplayName("exportMealHistory() - Должен выгрузить CSV с заголовком и экранированием")
+    void exportMealHistory_Csv() throws Exception {
+        String[] lines = export(MealExportFormat.CSV).split("\n");
+
+        assertEquals(3, lines.length);
+        assertEquals(MealExportService.CSV_HEADER, lines[0]);
+        assertEquals("2,2024-03-01T13:30,10;11,\"Pizza;Salad, green\",1.0;2.0,600,20.0,18.0,70.0", lines[1]);
+        assertEquals("1,2024-03-01T08:00,12,Oatmeal,0.5,100,3.0,2.0,17.5", lines[2]);
+        assertTrue(streamClosed.get());
+    }
+
+    private String export(MealExportFormat format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        mealExportService.exportMealHistory(1L, format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private record Row(Long mealId, LocalDateTime dateTime, Long foodId, String foodName,
+                       double quantity, int totalCalories, double totalProtein, double totalFat,
+                       double totalCarbs) implements MealExportRow {
+        @Override
+        public Long getMealId() {
+            return mealId;
+        }
+
+        @Override
+        public LocalDateTime getDateTime() {
+            return dateTime;
+        }
+
+        @Override
+        public Long getFoodId() {
+            return foodId;
+        }
+
+        @Override
+        public String getFoodName() {
+            return foodName;
+        }
+
+        @Override
+        public double getQuantity() {
+            return quantity;
+        }
+
+        @Override
+        public int getTotalCalories() {
+            return totalCalories;
+        }
+
+        @Override
+        public double getTotalProtein() {
+            return totalProtein;
+        }
+
+        @Override
+        public double getTotalFat() {
+            return totalFat;
+        }
+
+        @Override
+        public double getTotalCarbs() {
+            return totalCarbs;
+        }
+    }
+}
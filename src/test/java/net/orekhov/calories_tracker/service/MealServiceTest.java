@@ -1,8 +1,14 @@
 package net.orekhov.calories_tracker.service;
 
+import net.orekhov.calories_tracker.cache.UserDataVersions;
+import net.orekhov.calories_tracker.dto.MealCursor;
+import net.orekhov.calories_tracker.dto.MealPage;
+import net.orekhov.calories_tracker.dto.NormalizedMealPage;
 import net.orekhov.calories_tracker.entity.Food;
 import net.orekhov.calories_tracker.entity.Meal;
 import net.orekhov.calories_tracker.entity.User;
+import net.orekhov.calories_tracker.event.MealChangedEvent;
+import net.orekhov.calories_tracker.exception.BadRequestException;
 import net.orekhov.calories_tracker.exception.NotFoundException;
 import net.orekhov.calories_tracker.repository.MealRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,12 +18,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,6 +37,15 @@ class MealServiceTest {
     @Mock
     private MealRepository mealRepository;
 
+    @Mock
+    private DailySummaryService dailySummaryService;
+
+    @Mock
+    private UserDataVersions userDataVersions;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private MealService mealService;
 
@@ -36,6 +56,7 @@ class MealServiceTest {
     @BeforeEach
     void setUp() {
         sampleUser = new User("John Doe", "john@example.com", 30, 80.0, 180.0, User.Goal.MAINTAIN_WEIGHT);
+        ReflectionTestUtils.setField(sampleUser, "id", 1L);
         sampleFoods = List.of(new Food("Pizza", 300, 10.0, 12.0, 30.0));
         sampleMeal = new Meal(sampleUser, sampleFoods, LocalDateTime.now());
     }
@@ -50,6 +71,43 @@ class MealServiceTest {
         assertNotNull(createdMeal);
         assertEquals(sampleMeal, createdMeal);
         verify(mealRepository, times(1)).save(sampleMeal);
+        verify(dailySummaryService, times(1)).recordMeal(sampleMeal);
+        verify(userDataVersions, times(1)).bumpAfterCommit(1L);
+        verify(eventPublisher, times(1)).publishEvent(argThat((Object event) ->
+                event instanceof MealChangedEvent changed && changed.getUserId() == 1L));
+    }
+
+    @Test
+    @DisplayName("createMeal() - Должен сохранить снимок пищевой ценности, не зависящий от последующих изменений блюда")
+    void createMeal_NutrientSnapshot() {
+        Food pizza = new Food("Pizza", 300, 10.0, 12.0, 30.0);
+        Meal meal = new Meal(sampleUser, LocalDateTime.now());
+        meal.addItem(pizza, 1.5);
+        pizza.setCalories(320);
+        when(mealRepository.save(meal)).thenReturn(meal);
+
+        mealService.createMeal(meal);
+        pizza.setCalories(1000);
+        pizza.setProtein(50.0);
+
+        assertEquals(480, meal.getTotalCalories());
+        assertEquals(15.0, meal.getTotalProtein());
+        assertEquals(18.0, meal.getTotalFat());
+        assertEquals(45.0, meal.getTotalCarbs());
+    }
+
+    @Test
+    @DisplayName("createMeals() - Должен сохранить пакет приемов пищи и обновить сводки")
+    void createMeals() {
+        List<Meal> meals = List.of(sampleMeal, new Meal(sampleUser, sampleFoods, LocalDateTime.now()));
+        when(mealRepository.saveAll(meals)).thenReturn(meals);
+
+        List<Meal> savedMeals = mealService.createMeals(meals);
+
+        assertEquals(meals, savedMeals);
+        verify(mealRepository, times(1)).saveAll(meals);
+        verify(dailySummaryService, times(1)).recordMeals(meals);
+        verify(userDataVersions, times(1)).bumpAfterCommit(1L);
     }
 
     @Test
@@ -77,39 +135,97 @@ class MealServiceTest {
     }
 
     @Test
-    @DisplayName("getUserMeals() - Должен вернуть список приемов пищи пользователя")
+    @DisplayName("getUserMeals() - Должен вернуть первую страницу приемов пищи пользователя")
     void getUserMeals() {
-        when(mealRepository.findByUser_IdOrderByDateTimeDesc(1L)).thenReturn(List.of(sampleMeal));
+        when(mealRepository.findPageIds(1L, PageRequest.ofSize(51))).thenReturn(List.of(10L));
+        when(mealRepository.findAllWithFoodsByIdIn(List.of(10L))).thenReturn(List.of(sampleMeal));
+
+        MealPage page = mealService.getUserMeals(1L, null, 50);
+
+        assertEquals(1, page.getItems().size());
+        assertEquals(sampleMeal.getDateTime(), page.getItems().get(0).getDateTime());
+        assertEquals("Pizza", page.getItems().get(0).getFoods().get(0).getName());
+        assertEquals(300, page.getItems().get(0).getTotalCalories());
+        assertNull(page.getNext());
+        verify(mealRepository, times(1)).findPageIds(1L, PageRequest.ofSize(51));
+    }
+
+    @Test
+    @DisplayName("getUserMeals() - Должен вернуть курсор, если есть следующая страница")
+    void getUserMeals_HasNext() {
+        when(mealRepository.findPageIds(1L, PageRequest.ofSize(2))).thenReturn(List.of(10L, 9L));
+        when(mealRepository.findAllWithFoodsByIdIn(List.of(10L))).thenReturn(List.of(sampleMeal));
+
+        MealPage page = mealService.getUserMeals(1L, null, 1);
+
+        assertEquals(1, page.getItems().size());
+        assertEquals(new MealCursor(sampleMeal.getDateTime(), sampleMeal.getId()).encode(), page.getNext());
+        verify(mealRepository, never()).findAllWithFoodsByIdIn(List.of(10L, 9L));
+    }
+
+    @Test
+    @DisplayName("getUserMeals() - Должен искать страницу после курсора")
+    void getUserMeals_Before() {
+        LocalDateTime dateTime = LocalDateTime.of(2024, 3, 1, 13, 30);
+        String before = new MealCursor(dateTime, 7L).encode();
+        when(mealRepository.findPageIdsBefore(1L, dateTime, 7L, PageRequest.ofSize(11))).thenReturn(List.of());
+
+        MealPage page = mealService.getUserMeals(1L, before, 10);
+
+        assertTrue(page.getItems().isEmpty());
+        assertNull(page.getNext());
+        verify(mealRepository, never()).findAllWithFoodsByIdIn(any());
+    }
 
-        List<Meal> meals = mealService.getUserMeals(1L);
+    @Test
+    @DisplayName("getUserMealsNormalized() - Должен вернуть сущности страницы с пользователем и курсором")
+    void getUserMealsNormalized() {
+        when(mealRepository.findPageIds(1L, PageRequest.ofSize(2))).thenReturn(List.of(10L, 9L));
+        when(mealRepository.findAllWithFoodsByIdIn(List.of(10L))).thenReturn(List.of(sampleMeal));
+
+        NormalizedMealPage page = mealService.getUserMealsNormalized(sampleUser, null, 1);
 
-        assertFalse(meals.isEmpty());
-        assertEquals(1, meals.size());
-        assertEquals(sampleMeal, meals.get(0));
-        verify(mealRepository, times(1)).findByUser_IdOrderByDateTimeDesc(1L);
+        assertSame(sampleUser, page.getUser());
+        assertEquals(List.of(sampleMeal), page.getMeals());
+        assertEquals(new MealCursor(sampleMeal.getDateTime(), sampleMeal.getId()).encode(), page.getNext());
+        assertThrows(BadRequestException.class, () -> mealService.getUserMealsNormalized(sampleUser, null, 0));
+    }
+
+    @Test
+    @DisplayName("getUserMeals() - Должен выбросить BadRequestException для некорректного курсора или размера страницы")
+    void getUserMeals_BadRequest() {
+        assertThrows(BadRequestException.class, () -> mealService.getUserMeals(1L, "not-a-cursor", 10));
+        assertThrows(BadRequestException.class, () -> mealService.getUserMeals(1L, null, 0));
+        assertThrows(BadRequestException.class, () -> mealService.getUserMeals(1L, null, MealService.MAX_PAGE_SIZE + 1));
+        verifyNoInteractions(mealRepository);
     }
 
     @Test
     @DisplayName("deleteMealById() - Должен удалить прием пищи по ID")
     void deleteMealById() {
-        when(mealRepository.existsById(1L)).thenReturn(true);
+        when(mealRepository.findById(1L)).thenReturn(Optional.of(sampleMeal));
 
         mealService.deleteMealById(1L);
 
-        verify(mealRepository, times(1)).existsById(1L);
-        verify(mealRepository, times(1)).deleteById(1L);
+        verify(mealRepository, times(1)).findById(1L);
+        verify(dailySummaryService, times(1)).removeMeal(sampleMeal);
+        verify(mealRepository, times(1)).delete(sampleMeal);
+        verify(userDataVersions, times(1)).bumpAfterCommit(1L);
+        verify(eventPublisher, times(1)).publishEvent(any(MealChangedEvent.class));
     }
 
     @Test
     @DisplayName("deleteMealById() - Должен выбросить NotFoundException, если прием пищи не найден")
     void deleteMealById_NotFound() {
-        when(mealRepository.existsById(1L)).thenReturn(false);
+        when(mealRepository.findById(1L)).thenReturn(Optional.empty());
 
         NotFoundException exception = assertThrows(NotFoundException.class, () ->
                 mealService.deleteMealById(1L));
+        verifyNoInteractions(userDataVersions, eventPublisher);
 
         assertEquals("Meal with id 1 not found", exception.getMessage());
-        verify(mealRepository, times(1)).existsById(1L);
-        verify(mealRepository, never()).deleteById(1L);
+        verify(mealRepository, times(1)).findById(1L);
+        verify(mealRepository, never()).delete(any(Meal.class));
+        verifyNoInteractions(dailySummaryService);
     }
 }
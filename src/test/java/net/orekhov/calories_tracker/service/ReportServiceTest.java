@@ -1,10 +1,20 @@
 package net.orekhov.calories_tracker.service;
 
+import net.orekhov.calories_tracker.datasource.ReplicaReads;
+import net.orekhov.calories_tracker.dto.DailyProgress;
+import net.orekhov.calories_tracker.dto.MealPage;
+import net.orekhov.calories_tracker.dto.MealView;
+import net.orekhov.calories_tracker.dto.NormalizedMealPage;
+import net.orekhov.calories_tracker.dto.NutritionBucket;
+import net.orekhov.calories_tracker.dto.ReportGranularity;
+import net.orekhov.calories_tracker.entity.DailyCalorieSummary;
+import net.orekhov.calories_tracker.entity.DailyCalorieSummaryId;
 import net.orekhov.calories_tracker.entity.Food;
 import net.orekhov.calories_tracker.entity.Meal;
 import net.orekhov.calories_tracker.entity.User;
+import net.orekhov.calories_tracker.exception.BadRequestException;
 import net.orekhov.calories_tracker.exception.NotFoundException;
-import net.orekhov.calories_tracker.repository.MealRepository;
+import net.orekhov.calories_tracker.repository.DailyCalorieSummaryRepository;
 import net.orekhov.calories_tracker.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -13,10 +23,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,11 +39,17 @@ import static org.mockito.Mockito.*;
 class ReportServiceTest {
 
     @Mock
-    private MealRepository mealRepository;
+    private MealService mealService;
 
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private DailyCalorieSummaryRepository summaryRepository;
+
+    @Mock
+    private ReplicaReads replicaReads;
+
     @InjectMocks
     private ReportService reportService;
 
@@ -42,6 +60,7 @@ class ReportServiceTest {
     @BeforeEach
     void setUp() {
         sampleUser = new User("John Doe", "john@example.com", 30, 80.0, 180.0, User.Goal.MAINTAIN_WEIGHT);
+        ReflectionTestUtils.setField(sampleUser, "id", 1L);
         sampleFoods = List.of(new Food("Pizza", 500, 10.0, 20.0, 50.0));
         sampleMeal = new Meal(sampleUser, sampleFoods, LocalDateTime.now());
     }
@@ -49,15 +68,60 @@ class ReportServiceTest {
     @Test
     @DisplayName("getDailyCalories() - Должен вернуть общее количество потребленных калорий за день")
     void getDailyCalories() {
-        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
-        LocalDateTime endOfDay = LocalDate.now().atTime(LocalTime.MAX);
-
-        when(mealRepository.findMealsForUserToday(1L, startOfDay, endOfDay)).thenReturn(List.of(sampleMeal));
+        DailyCalorieSummaryId today = new DailyCalorieSummaryId(1L, LocalDate.now(ZoneOffset.UTC));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(sampleUser));
+        when(summaryRepository.findById(today)).thenReturn(Optional.of(summary(500, 1)));
 
         int dailyCalories = reportService.getDailyCalories(1L);
 
         assertEquals(500, dailyCalories);
-        verify(mealRepository, times(1)).findMealsForUserToday(1L, startOfDay, endOfDay);
+        verify(summaryRepository, times(1)).findById(today);
+        verifyNoInteractions(mealService);
+    }
+
+    @Test
+    @DisplayName("getDailyCalories() - Должен вернуть 0, если за день нет приемов пищи")
+    void getDailyCalories_NoMeals() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(sampleUser));
+        when(summaryRepository.findById(any())).thenReturn(Optional.empty());
+
+        assertEquals(0, reportService.getDailyCalories(1L));
+    }
+
+    @Test
+    @DisplayName("getDailyCalories() - Должен брать текущий день в часовом поясе пользователя")
+    void getDailyCalories_UserTimeZone() {
+        sampleUser.setTimeZone("Pacific/Kiritimati");
+        DailyCalorieSummaryId today = new DailyCalorieSummaryId(1L, LocalDate.now(ZoneId.of("Pacific/Kiritimati")));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(sampleUser));
+        when(summaryRepository.findById(today)).thenReturn(Optional.of(summary(700, 1)));
+
+        assertEquals(700, reportService.getDailyCalories(1L));
+    }
+
+    @Test
+    @DisplayName("getDailyCalories() - Должен выбросить NotFoundException, если пользователь не найден")
+    void getDailyCalories_UserNotFound() {
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> reportService.getDailyCalories(1L));
+        verifyNoInteractions(summaryRepository);
+    }
+
+    @Test
+    @DisplayName("getDailyProgress() - Должен вернуть калории за день, норму и остаток")
+    void getDailyProgress() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(sampleUser));
+        when(summaryRepository.findById(new DailyCalorieSummaryId(1L, LocalDate.now(ZoneOffset.UTC))))
+                .thenReturn(Optional.of(summary(2500, 2)));
+
+        DailyProgress progress = reportService.getDailyProgress(1L);
+
+        assertEquals(LocalDate.now(ZoneOffset.UTC), progress.getDay());
+        assertEquals(2500, progress.getTotalCalories());
+        assertEquals(sampleUser.getDailyCalories(), progress.getDailyCalories());
+        assertEquals(sampleUser.getDailyCalories() - 2500, progress.getRemainingCalories());
+        assertFalse(progress.isWithinLimit());
     }
 
     @Test
@@ -65,19 +129,14 @@ class ReportServiceTest {
     void isWithinDailyLimit_WithinLimit() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(sampleUser));
 
-        // Создаем список приемов пищи, где общее количество калорий = 1500
-        List<Meal> meals = List.of(
-                new Meal(sampleUser, List.of(new Food("Pizza", 500, 10.0, 20.0, 50.0)), LocalDateTime.now()),
-                new Meal(sampleUser, List.of(new Food("Burger", 1000, 20.0, 30.0, 60.0)), LocalDateTime.now())
-        );
-
-        when(mealRepository.findMealsForUserToday(anyLong(), any(), any())).thenReturn(meals);
+        // Два приема пищи, где общее количество калорий = 1500
+        when(summaryRepository.findById(any())).thenReturn(Optional.of(summary(1500, 2)));
 
         boolean result = reportService.isWithinDailyLimit(1L);
 
         assertTrue(result);
         verify(userRepository, times(1)).findById(1L);
-        verify(mealRepository, times(1)).findMealsForUserToday(eq(1L), any(), any());
+        verify(summaryRepository, times(1)).findById(new DailyCalorieSummaryId(1L, LocalDate.now(ZoneOffset.UTC)));
     }
 
     @Test
@@ -85,19 +144,14 @@ class ReportServiceTest {
     void isWithinDailyLimit_OverLimit() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(sampleUser));
 
-        // Создаем список приемов пищи, где общее количество калорий = 2500
-        List<Meal> meals = List.of(
-                new Meal(sampleUser, List.of(new Food("Pizza", 1000, 10.0, 20.0, 50.0)), LocalDateTime.now()),
-                new Meal(sampleUser, List.of(new Food("Burger", 1500, 20.0, 30.0, 60.0)), LocalDateTime.now())
-        );
-
-        when(mealRepository.findMealsForUserToday(anyLong(), any(), any())).thenReturn(meals);
+        // Два приема пищи, где общее количество калорий = 2500
+        when(summaryRepository.findById(any())).thenReturn(Optional.of(summary(2500, 2)));
 
         boolean result = reportService.isWithinDailyLimit(1L);
 
         assertFalse(result);
         verify(userRepository, times(1)).findById(1L);
-        verify(mealRepository, times(1)).findMealsForUserToday(eq(1L), any(), any());
+        verify(summaryRepository, times(1)).findById(new DailyCalorieSummaryId(1L, LocalDate.now(ZoneOffset.UTC)));
     }
 
 
@@ -116,25 +170,99 @@ class ReportServiceTest {
     @Test
     @DisplayName("getMealHistory() - Должен вернуть историю приемов пищи пользователя")
     void getMealHistory() {
-        when(mealRepository.findByUser_IdOrderByDateTimeDesc(1L)).thenReturn(List.of(sampleMeal));
+        MealPage page = new MealPage(List.of(MealView.from(sampleMeal)), null);
+        when(mealService.getUserMeals(1L, null, 50)).thenReturn(page);
 
-        List<Meal> meals = reportService.getMealHistory(1L);
+        MealPage history = reportService.getMealHistory(1L, null, 50);
 
-        assertFalse(meals.isEmpty());
-        assertEquals(1, meals.size());
-        assertEquals(sampleMeal, meals.get(0));
-        verify(mealRepository, times(1)).findByUser_IdOrderByDateTimeDesc(1L);
+        assertEquals(1, history.getItems().size());
+        assertEquals(sampleMeal.getDateTime(), history.getItems().get(0).getDateTime());
+        assertEquals("Pizza", history.getItems().get(0).getFoods().get(0).getName());
+        assertEquals(500, history.getItems().get(0).getTotalCalories());
+        verify(mealService, times(1)).getUserMeals(1L, null, 50);
     }
 
     @Test
     @DisplayName("getMealHistory() - Должен выбросить NotFoundException, если у пользователя нет приемов пищи")
     void getMealHistory_NotFound() {
-        when(mealRepository.findByUser_IdOrderByDateTimeDesc(1L)).thenReturn(List.of());
+        when(mealService.getUserMeals(1L, null, 50)).thenReturn(new MealPage(List.of(), null));
 
         NotFoundException exception = assertThrows(NotFoundException.class, () ->
-                reportService.getMealHistory(1L));
+                reportService.getMealHistory(1L, null, 50));
 
         assertEquals("No meals found for user with id 1", exception.getMessage());
-        verify(mealRepository, times(1)).findByUser_IdOrderByDateTimeDesc(1L);
+        verify(mealService, times(1)).getUserMeals(1L, null, 50);
+    }
+
+    @Test
+    @DisplayName("getMealHistory() - Должен вернуть пустую страницу после последней")
+    void getMealHistory_PastLastPage() {
+        when(mealService.getUserMeals(1L, "cursor", 50)).thenReturn(new MealPage(List.of(), null));
+
+        MealPage history = reportService.getMealHistory(1L, "cursor", 50);
+
+        assertTrue(history.getItems().isEmpty());
+    }
+
+    @Test
+    @DisplayName("getNormalizedMealHistory() - Должен вернуть нормализованную историю пользователя")
+    void getNormalizedMealHistory() {
+        NormalizedMealPage page = new NormalizedMealPage(sampleUser, List.of(sampleMeal), null);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(sampleUser));
+        when(mealService.getUserMealsNormalized(sampleUser, null, 50)).thenReturn(page);
+
+        assertSame(page, reportService.getNormalizedMealHistory(1L, null, 50));
+        verify(replicaReads).allowFor(1L);
+    }
+
+    @Test
+    @DisplayName("getNormalizedMealHistory() - Должен выбросить NotFoundException для неизвестного пользователя или пустой истории")
+    void getNormalizedMealHistory_NotFound() {
+        when(userRepository.findById(2L)).thenReturn(Optional.empty());
+        assertThrows(NotFoundException.class, () -> reportService.getNormalizedMealHistory(2L, null, 50));
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(sampleUser));
+        when(mealService.getUserMealsNormalized(sampleUser, null, 50))
+                .thenReturn(new NormalizedMealPage(sampleUser, List.of(), null));
+        NotFoundException exception = assertThrows(NotFoundException.class, () ->
+                reportService.getNormalizedMealHistory(1L, null, 50));
+        assertEquals("No meals found for user with id 1", exception.getMessage());
+    }
+
+    private static DailyCalorieSummary summary(long calories, int mealCount) {
+        return new DailyCalorieSummary(1L, LocalDate.now(), calories, 0, 0, 0, mealCount);
+    }
+
+    @Test
+    @DisplayName("getNutritionReport() - Должен агрегировать сводки в базе с выбранным шагом")
+    void getNutritionReport() {
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 3, 31);
+        List<NutritionBucket> buckets = List.of(mock(NutritionBucket.class));
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(summaryRepository.sumByPeriod(1L, "month", from, to)).thenReturn(buckets);
+
+        assertSame(buckets, reportService.getNutritionReport(1L, from, to, ReportGranularity.MONTH));
+    }
+
+    @Test
+    @DisplayName("getNutritionReport() - Должен отклонять период, у которого начало позже конца")
+    void getNutritionReport_InvalidRange() {
+        LocalDate day = LocalDate.of(2024, 1, 2);
+
+        assertThrows(BadRequestException.class, () ->
+                reportService.getNutritionReport(1L, day, day.minusDays(1), ReportGranularity.DAY));
+        verifyNoInteractions(summaryRepository);
+    }
+
+    @Test
+    @DisplayName("getNutritionReport() - Должен выбросить NotFoundException, если пользователь не найден")
+    void getNutritionReport_UserNotFound() {
+        LocalDate day = LocalDate.of(2024, 1, 2);
+        when(userRepository.existsById(99L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () ->
+                reportService.getNutritionReport(99L, day, day, ReportGranularity.DAY));
+        verifyNoInteractions(summaryRepository);
     }
 }
@@ -0,0 +1,133 @@
+package net.orekhov.calories_tracker.wal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MealWriteAheadLogTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path dir;
+
+    private MealWriteAheadLog mealLog;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (mealLog != null) {
+            mealLog.close();
+        }
+    }
+
+    private MealWriteAheadLog open(DataSize compactThreshold) throws IOException {
+        if (mealLog != null) {
+            mealLog.close();
+        }
+        mealLog = new MealWriteAheadLog(dir.toString(), compactThreshold, objectMapper);
+        return mealLog;
+    }
+
+    private static MealLogEntry entry(long userId) {
+        return new MealLogEntry(UUID.randomUUID(), userId, LocalDateTime.of(2024, 1, 1, 12, 0), Map.of(10L, 1.5));
+    }
+
+    @Test
+    @DisplayName("Записи читаются пачками в порядке добавления")
+    void readsPendingInOrder() throws IOException {
+        MealWriteAheadLog log = open(DataSize.ofMegabytes(1));
+        MealLogEntry first = entry(1);
+        log.append(first);
+        log.append(entry(2));
+        log.append(entry(3));
+
+        MealWriteAheadLog.Batch batch = log.readPending(2);
+
+        assertEquals(2, batch.entries().size());
+        assertEquals(first.getRequestId(), batch.entries().get(0).getRequestId());
+        assertEquals(Map.of(10L, 1.5), batch.entries().get(0).getQuantities());
+        assertEquals(first.getDateTime(), batch.entries().get(0).getDateTime());
+        assertEquals(2L, batch.entries().get(1).getUserId());
+        assertTrue(log.backlogBytes() > batch.end());
+    }
+
+    @Test
+    @DisplayName("После перезапуска читаются только записи после контрольной точки")
+    void checkpointSurvivesReopen() throws IOException {
+        MealWriteAheadLog log = open(DataSize.ofMegabytes(1));
+        log.append(entry(1));
+        log.append(entry(2));
+        log.checkpoint(log.readPending(1).end());
+
+        MealWriteAheadLog.Batch batch = open(DataSize.ofMegabytes(1)).readPending(10);
+
+        assertEquals(1, batch.entries().size());
+        assertEquals(2L, batch.entries().get(0).getUserId());
+    }
+
+    @Test
+    @DisplayName("Неполная последняя запись отбрасывается при открытии")
+    void discardsTornTail() throws IOException {
+        MealWriteAheadLog log = open(DataSize.ofMegabytes(1));
+        log.append(entry(1));
+        long size = Files.size(dir.resolve(MealWriteAheadLog.LOG_FILE));
+        Files.writeString(dir.resolve(MealWriteAheadLog.LOG_FILE), "1234abcd {\"requestId\":",
+                StandardCharsets.US_ASCII, StandardOpenOption.APPEND);
+
+        log = open(DataSize.ofMegabytes(1));
+
+        assertEquals(size, Files.size(dir.resolve(MealWriteAheadLog.LOG_FILE)));
+        assertEquals(1, log.readPending(10).entries().size());
+        log.append(entry(2));
+        assertEquals(2, log.readPending(10).entries().size());
+    }
+
+    @Test
+    @DisplayName("Поврежденная запись в середине журнала не пропускается молча")
+    void rejectsCorruptionInTheMiddle() throws IOException {
+        MealWriteAheadLog log = open(DataSize.ofMegabytes(1));
+        log.append(entry(1));
+        log.append(entry(2));
+        log.close();
+        mealLog = null;
+        Path file = dir.resolve(MealWriteAheadLog.LOG_FILE);
+        byte[] data = Files.readAllBytes(file);
+        data[0] = data[0] == 'f' ? (byte) '0' : (byte) 'f';
+        Files.write(file, data);
+
+        assertThrows(IllegalStateException.class, () -> open(DataSize.ofMegabytes(1)));
+    }
+
+    @Test
+    @DisplayName("Полностью сохраненный журнал усекается после превышения порога")
+    void compactsDrainedLog() throws IOException {
+        MealWriteAheadLog log = open(DataSize.ofBytes(1));
+        log.append(entry(1));
+        assertFalse(log.compactIfDrained());
+
+        log.checkpoint(log.readPending(10).end());
+        assertTrue(log.compactIfDrained());
+        assertEquals(0, Files.size(dir.resolve(MealWriteAheadLog.LOG_FILE)));
+        assertEquals(0, log.backlogBytes());
+
+        log.append(entry(2));
+        List<MealLogEntry> pending = open(DataSize.ofBytes(1)).readPending(10).entries();
+        assertEquals(1, pending.size());
+        assertEquals(2L, pending.get(0).getUserId());
+    }
+}